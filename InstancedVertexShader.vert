@@ -0,0 +1,41 @@
+#version 400 core
+
+layout (location = 0) in vec3 position;
+layout (location = 1) in vec2 textureCoords;
+layout (location = 2) in vec3 normals;
+layout (location = 3) in vec2 stripTextureCoords;
+layout (location = 4) in mat4 instanceMatrix; // occupies locations 4 to 7
+layout (location = 8) in vec4 instanceTiling; // width / tileX, height / tileY, depth / tileX, depth / tileY
+layout (location = 9) in vec4 instanceParameters; // strip flag, normal sign, selection effect, alpha
+
+layout (std140) uniform CameraBlock
+{
+    mat4 projectionMatrix;
+    mat4 viewMatrix;
+    mat4 projectionViewMatrix;
+};
+
+uniform vec3 diffuse;
+
+out vec2 pass_textureCoords;
+out vec3 pass_normals;
+out vec3 pass_posAfterTransformation;
+out float pass_selectionEffect;
+out float pass_alpha;
+out vec3 diffuseColor;
+
+void main()
+{
+    // pick the tiling of the face this vertex belongs to, the same way Cube.addTiledTextureCoordinates does
+    vec3 axis = abs(normals);
+    vec2 faceTiling = axis.z > 0.5 ? instanceTiling.xy : (axis.x > 0.5 ? instanceTiling.zy : instanceTiling.xw);
+
+    vec4 worldPosition = instanceMatrix * vec4(position, 1.0);
+    pass_normals = mat3(instanceMatrix) * (normals * instanceParameters.y);
+    pass_posAfterTransformation = vec3(worldPosition);
+    gl_Position = projectionViewMatrix * worldPosition;
+    pass_textureCoords = mix(textureCoords * faceTiling, stripTextureCoords, instanceParameters.x);
+    diffuseColor = diffuse;
+    pass_selectionEffect = instanceParameters.z;
+    pass_alpha = instanceParameters.w;
+}
@@ -4,9 +4,14 @@ layout (location = 0) in vec3 position;
 layout (location = 1) in vec2 textureCoords;
 layout (location = 2) in vec3 normals;
 
+layout (std140) uniform CameraBlock
+{
+    mat4 projectionMatrix;
+    mat4 viewMatrix;
+    mat4 projectionViewMatrix;
+};
+
 uniform mat4 transformationMatrix;
-uniform mat4 projectionMatrix;
-uniform mat4 viewMatrix;
 uniform vec3 diffuse;
 uniform float selectionEffect;
 uniform float alpha;
@@ -22,10 +27,11 @@ void main()
 {
 //    pass_normals = mat3(transpose(inverse(transformationMatrix))) * normals;
     pass_normals = mat3(transformationMatrix) * normals;
-    pass_posAfterTransformation = vec3(transformationMatrix * vec4(position, 1.0));
-    gl_Position = projectionMatrix * viewMatrix * transformationMatrix * vec4(position, 1.0);
+    vec4 worldPosition = transformationMatrix * vec4(position, 1.0);
+    pass_posAfterTransformation = vec3(worldPosition);
+    gl_Position = projectionViewMatrix * worldPosition;
     pass_textureCoords = textureCoords;
     diffuseColor = diffuse;
     pass_selectionEffect = selectionEffect;
     pass_alpha = alpha;
-}
\ No newline at end of file
+}
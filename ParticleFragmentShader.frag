@@ -0,0 +1,15 @@
+#version 400 core
+
+in vec2 pass_textureCoords;
+
+uniform sampler2D textureSampler;
+uniform vec3 diffuse;
+
+float ambientEffect = 0.4;
+
+out vec4 out_Color;
+
+void main()
+{
+    out_Color = texture(textureSampler, pass_textureCoords) * vec4(vec3(ambientEffect) + diffuse, 1.0);
+}
@@ -0,0 +1,52 @@
+#version 400 core
+
+// one particle per vertex, advanced by one timestep and written back through transform feedback
+layout (location = 0) in vec3 position;
+layout (location = 1) in vec3 velocity;
+layout (location = 2) in float age;
+layout (location = 3) in float emitter;
+
+const int MAX_EMITTERS = 16;
+
+uniform vec4 emitterPositions[MAX_EMITTERS];  // position, life length
+uniform vec4 emitterVelocities[MAX_EMITTERS]; // velocity, gravity effect
+uniform float deltaTime;
+uniform float gravity;
+
+out vec3 outPosition;
+out vec3 outVelocity;
+out float outAge;
+out float outEmitter;
+
+void main()
+{
+    int index = int(emitter);
+    vec4 emitterPosition = emitterPositions[index];
+    vec4 emitterVelocity = emitterVelocities[index];
+
+    float newAge = age + deltaTime;
+    vec3 newPosition = position;
+    vec3 newVelocity = velocity;
+
+    if (newAge >= emitterPosition.w)
+    {
+        // the slot is reused right away, so every emitter keeps the same number of particles in flight
+        newAge -= emitterPosition.w;
+        newPosition = emitterPosition.xyz;
+        newVelocity = emitterVelocity.xyz;
+    } else if (newAge < 0.0)
+    {
+        // not born yet, waits at the emitter with its current parameters
+        newPosition = emitterPosition.xyz;
+        newVelocity = emitterVelocity.xyz;
+    } else
+    {
+        newVelocity.y += gravity * emitterVelocity.w * deltaTime;
+        newPosition += newVelocity * deltaTime;
+    }
+
+    outPosition = newPosition;
+    outVelocity = newVelocity;
+    outAge = newAge;
+    outEmitter = emitter;
+}
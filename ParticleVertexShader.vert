@@ -0,0 +1,35 @@
+#version 400 core
+
+layout (location = 0) in vec2 corner;            // corner of the unit quad, -0.5 to 0.5
+layout (location = 1) in vec3 particlePosition;  // per instance, read straight from the simulation buffer
+layout (location = 2) in float particleAge;      // per instance
+
+layout (std140) uniform CameraBlock
+{
+    mat4 projectionMatrix;
+    mat4 viewMatrix;
+    mat4 projectionViewMatrix;
+};
+
+uniform float particleSize;
+
+out vec2 pass_textureCoords;
+
+void main()
+{
+    if (particleAge < 0.0)
+    {
+        // not born yet, moved outside of the clip volume
+        gl_Position = vec4(2.0, 2.0, 2.0, 1.0);
+        pass_textureCoords = vec2(0.0);
+        return;
+    }
+
+    // the rows of the view rotation are the camera's right and up axes in world space
+    vec3 right = vec3(viewMatrix[0][0], viewMatrix[1][0], viewMatrix[2][0]);
+    vec3 up = vec3(viewMatrix[0][1], viewMatrix[1][1], viewMatrix[2][1]);
+    vec3 worldPosition = particlePosition + (right * corner.x + up * corner.y) * particleSize;
+
+    gl_Position = projectionViewMatrix * vec4(worldPosition, 1.0);
+    pass_textureCoords = corner + vec2(0.5);
+}
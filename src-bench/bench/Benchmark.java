@@ -0,0 +1,78 @@
+package bench;
+
+/**
+ * Small timing harness shared by the benchmarks of this source root. An operation is run in batches that double in
+ * size until one batch takes {@link #ROUND_NANOS}, which also warms it up, then that batch is timed a few more times
+ * and the fastest round is reported. Operations return a value that ends up in {@link #sink}, so the JIT cannot
+ * drop their work as dead code.
+ * <p>
+ * This is no replacement for JMH, but the project has no build to host it, and the differences measured here are
+ * large enough to show through the noise.
+ */
+final class Benchmark
+{
+    private static final long ROUND_NANOS = 200_000_000L;
+    private static final int ROUNDS = 5;
+
+    private static long sink;
+
+    interface Operation
+    {
+        /**
+         * @param iteration Counts up from 0 within a batch, for cycling through precomputed inputs
+         */
+        long run(int iteration);
+    }
+
+    private Benchmark()
+    {
+    }
+
+    /**
+     * @return The fastest time of one operation seen over all rounds, in nanoseconds
+     */
+    static double measure(Operation operation)
+    {
+        int batch = 1;
+        while (runBatch(operation, batch) < ROUND_NANOS && batch < Integer.MAX_VALUE / 2)
+        {
+            batch *= 2;
+        }
+
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            best = Math.min(best, runBatch(operation, batch) / (double) batch);
+        }
+
+        return best;
+    }
+
+    private static long runBatch(Operation operation, int batch)
+    {
+        long start = System.nanoTime();
+        long result = 0;
+
+        for (int i = 0; i < batch; i++)
+        {
+            result += operation.run(i);
+        }
+
+        long time = System.nanoTime() - start;
+        sink += result;
+        return time;
+    }
+
+    static void report(String name, Operation operation)
+    {
+        System.out.printf("  %-36s %14.1f ns/op%n", name, measure(operation));
+    }
+
+    /**
+     * Prints the folded results, which keeps them alive until the very end.
+     */
+    static void finish()
+    {
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,121 @@
+package bench;
+
+import render.Frustum;
+import spatial.BoundingVolumeHierarchy;
+import spatial.PrimitiveList;
+import util.Matrix4f;
+
+import java.util.Random;
+
+/**
+ * Times the build and every query of {@link BoundingVolumeHierarchy} over random boxes, from a scene the size of the
+ * room up to a million primitives. The boxes keep the same density at every size, so a query of the same extent
+ * finds about the same number of primitives and the times show how the queries scale with the tree's depth.
+ */
+public class BvhBenchmark
+{
+    private static final int[] SIZES = {10, 1_000, 1_000_000};
+    // every operation cycles through this many precomputed queries
+    private static final int QUERIES = 1024;
+    private static final int FRUSTUMS = 64;
+
+    public static void main(String[] args)
+    {
+        for (int size : SIZES)
+        {
+            run(size);
+        }
+
+        Benchmark.finish();
+    }
+
+    private static void run(int size)
+    {
+        Random random = new Random(size);
+        // one primitive per 8 units of volume
+        float extent = (float) Math.cbrt(size) * 2.0f;
+
+        BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy();
+        for (int i = 0; i < size; i++)
+        {
+            float x = random.nextFloat() * extent;
+            float y = random.nextFloat() * extent;
+            float z = random.nextFloat() * extent;
+
+            hierarchy.add(x, y, z, x + 0.1f + random.nextFloat(), y + 0.1f + random.nextFloat(),
+                    z + 0.1f + random.nextFloat());
+        }
+
+        long start = System.nanoTime();
+        hierarchy.build();
+        System.out.printf("%d primitives, built in %.2f ms%n", size, (System.nanoTime() - start) / 1_000_000.0);
+
+        float[] points = new float[QUERIES * 3];
+        float[] directions = new float[QUERIES * 3];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            points[i * 3] = random.nextFloat() * extent;
+            points[i * 3 + 1] = random.nextFloat() * extent;
+            points[i * 3 + 2] = random.nextFloat() * extent;
+
+            float angle = random.nextFloat() * (float) (2.0 * Math.PI);
+            float height = random.nextFloat() * 2.0f - 1.0f;
+            float radius = (float) Math.sqrt(1.0f - height * height);
+            directions[i * 3] = radius * (float) Math.cos(angle);
+            directions[i * 3 + 1] = height;
+            directions[i * 3 + 2] = radius * (float) Math.sin(angle);
+        }
+
+        float[][] frustums = createFrustums(random, extent);
+        PrimitiveList results = new PrimitiveList();
+
+        Benchmark.report("queryFrustum", iteration ->
+        {
+            results.clear();
+            hierarchy.queryFrustum(frustums[iteration % FRUSTUMS], results);
+            return results.size();
+        });
+
+        Benchmark.report("queryOverlap (2 x 2 x 2 box)", iteration ->
+        {
+            int i = iteration % QUERIES * 3;
+            results.clear();
+            hierarchy.queryOverlap(points[i] - 1.0f, points[i + 1] - 1.0f, points[i + 2] - 1.0f,
+                    points[i] + 1.0f, points[i + 1] + 1.0f, points[i + 2] + 1.0f, results);
+            return results.size();
+        });
+
+        Benchmark.report("findNearest", iteration ->
+        {
+            int i = iteration % QUERIES * 3;
+            return hierarchy.findNearest(points[i], points[i + 1], points[i + 2], extent);
+        });
+
+        Benchmark.report("raycast", iteration ->
+        {
+            int i = iteration % QUERIES * 3;
+            return hierarchy.raycast(points[i], points[i + 1], points[i + 2],
+                    directions[i], directions[i + 1], directions[i + 2], extent);
+        });
+    }
+
+    // cameras at random spots looking around horizontally, seeing a quarter of the scene's extent
+    private static float[][] createFrustums(Random random, float extent)
+    {
+        Matrix4f projection = Matrix4f.perspective(70.0f, 16.0f / 9.0f, 0.01f, Math.max(extent / 4.0f, 1.0f));
+        Frustum frustum = new Frustum();
+        float[][] frustums = new float[FRUSTUMS][];
+
+        for (int i = 0; i < FRUSTUMS; i++)
+        {
+            Matrix4f view = Matrix4f.rotate(random.nextFloat() * 360.0f, 0.0f, 1.0f, 0.0f)
+                    .multiply(Matrix4f.translate(-random.nextFloat() * extent, -random.nextFloat() * extent,
+                            -random.nextFloat() * extent));
+
+            frustum.update(projection.multiply(view));
+            frustums[i] = frustum.getPlanes().clone();
+        }
+
+        return frustums;
+    }
+}
@@ -0,0 +1,114 @@
+package bench;
+
+import spatial.AabbBatch;
+import spatial.AabbDistanceKernel;
+import spatial.AabbDistanceKernels;
+import util.Matrix4f;
+import util.Vector3f;
+import util.Vector4f;
+
+import java.util.Random;
+
+/**
+ * Compares the batched distance kernel with the per-cube distance it replaced, which multiplied the object and cube
+ * matrices and transformed both corners of the cube for every cube it measured. Run it once plainly and once with
+ * src-vector compiled in and --add-modules jdk.incubator.vector to compare the scalar and the vector kernel.
+ */
+public class DistanceKernelBenchmark
+{
+    private static final int[] SIZES = {16, 256, 4096, 65536};
+
+    public static void main(String[] args)
+    {
+        AabbDistanceKernel kernel = AabbDistanceKernels.get();
+        System.out.println("Kernel: " + kernel.getClass().getSimpleName());
+
+        for (int size : SIZES)
+        {
+            run(kernel, size);
+        }
+
+        Benchmark.finish();
+    }
+
+    private static void run(AabbDistanceKernel kernel, int size)
+    {
+        Random random = new Random(size);
+        AabbBatch batch = new AabbBatch();
+        PerCubeDistance[] cubes = new PerCubeDistance[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            float x = random.nextFloat() * 20.0f - 10.0f;
+            float y = random.nextFloat() * 20.0f - 10.0f;
+            float z = random.nextFloat() * 20.0f - 10.0f;
+            float halfWidth = 0.05f + random.nextFloat();
+            float halfHeight = 0.05f + random.nextFloat();
+            float halfDepth = 0.05f + random.nextFloat();
+
+            batch.add(x - halfWidth, y - halfHeight, z - halfDepth, x + halfWidth, y + halfHeight, z + halfDepth);
+            cubes[i] = new PerCubeDistance(x, y, z, halfWidth, halfHeight, halfDepth);
+        }
+
+        float[] distances = new float[size];
+        Vector3f point = new Vector3f(0.5f, 1.0f, -0.5f);
+        Matrix4f objectTransformation = new Matrix4f();
+
+        System.out.println(size + " boxes");
+
+        Benchmark.report("kernel, whole batch", iteration ->
+        {
+            kernel.computeDistances(batch, point.x, point.y, point.z, distances);
+            return Float.floatToRawIntBits(distances[iteration % size]);
+        });
+
+        Benchmark.report("per cube, whole batch", iteration ->
+        {
+            for (int i = 0; i < size; i++)
+            {
+                distances[i] = cubes[i].getDistance(point, objectTransformation);
+            }
+            return Float.floatToRawIntBits(distances[iteration % size]);
+        });
+    }
+
+    /**
+     * The distance Cube used to compute for every collision candidate: its local matrix is combined with the
+     * object's, and the two transformed corners stand in for the box.
+     */
+    private static class PerCubeDistance
+    {
+        private final Matrix4f transformation;
+        private final float minX, minY, minZ, maxX, maxY, maxZ;
+
+        private final Matrix4f distanceMatrix = new Matrix4f();
+        private final Vector4f transformedMinimums = new Vector4f();
+        private final Vector4f transformedMaximums = new Vector4f();
+
+        PerCubeDistance(float x, float y, float z, float halfWidth, float halfHeight, float halfDepth)
+        {
+            this.transformation = Matrix4f.translate(x, y, z);
+            this.minX = -halfWidth;
+            this.minY = -halfHeight;
+            this.minZ = -halfDepth;
+            this.maxX = halfWidth;
+            this.maxY = halfHeight;
+            this.maxZ = halfDepth;
+        }
+
+        float getDistance(Vector3f point, Matrix4f objectTransformationMatrix)
+        {
+            objectTransformationMatrix.mulInto(transformation, distanceMatrix);
+            Vector4f minimums = distanceMatrix.multiplyInto(transformedMinimums.set(minX, minY, minZ, 1.0f),
+                    transformedMinimums);
+            Vector4f maximums = distanceMatrix.multiplyInto(transformedMaximums.set(maxX, maxY, maxZ, 1.0f),
+                    transformedMaximums);
+
+            float dx = Math.max(Math.max(minimums.x - point.x, 0.0f), point.x - maximums.x);
+            float dy = Math.max(Math.max(minimums.y - point.y, 0.0f), point.y - maximums.y);
+            float dz = Math.max(Math.max(minimums.z - point.z, 0.0f), point.z - maximums.z);
+
+            return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import util.Matrix4f;
+import util.Vector4f;
+
+/**
+ * Compares the allocating matrix operations with the in-place ones the render path uses instead: composing a local
+ * transformation, combining it with the object's and transforming a point. Every result is read through the same
+ * {@link Matrix4f#multiplyInto} call, so both sides pay the same for keeping it alive. The allocating side also pays
+ * for the garbage it leaves to the collector, which is the point of the comparison.
+ */
+public class MatrixBenchmark
+{
+    private static final Vector4f CORNER = new Vector4f(0.5f, 0.5f, 0.5f, 1.0f);
+
+    private static final Vector4f SCRATCH = new Vector4f();
+
+    public static void main(String[] args)
+    {
+        Matrix4f object = Matrix4f.translate(1.0f, 2.0f, 3.0f).multiply(Matrix4f.rotate(30.0f, 0.0f, 1.0f, 0.0f));
+        Matrix4f cube = Matrix4f.translate(0.25f, 0.0f, -0.5f).multiply(Matrix4f.scale(0.5f, 2.0f, 0.5f));
+        Matrix4f local = new Matrix4f();
+        Matrix4f world = new Matrix4f();
+        Vector4f transformed = new Vector4f();
+
+        Benchmark.report("compose, allocating", iteration -> read(Matrix4f.translate(iteration, 1.0f, 2.0f)
+                .multiply(Matrix4f.rotate(iteration, 0.0f, 1.0f, 0.0f))
+                .multiply(Matrix4f.scale(2.0f, 2.0f, 2.0f))));
+
+        Benchmark.report("compose, in place", iteration -> read(local.setTranslation(iteration, 1.0f, 2.0f)
+                .mulRotation(iteration, 0.0f, 1.0f, 0.0f)
+                .mulScale(2.0f, 2.0f, 2.0f)));
+
+        Benchmark.report("object * cube, multiply", iteration -> read(object.multiply(cube)));
+
+        Benchmark.report("object * cube, mulInto", iteration -> read(object.mulInto(cube, world)));
+
+        Benchmark.report("matrix * vector, multiply",
+                iteration -> Float.floatToRawIntBits(object.multiply(CORNER).x));
+
+        Benchmark.report("matrix * vector, multiplyInto",
+                iteration -> Float.floatToRawIntBits(object.multiplyInto(CORNER, transformed).x));
+
+        Benchmark.finish();
+    }
+
+    private static long read(Matrix4f matrix)
+    {
+        return Float.floatToRawIntBits(matrix.multiplyInto(CORNER, SCRATCH).x);
+    }
+}
@@ -0,0 +1,43 @@
+package spatial;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Handles as many boxes per step as the platform's preferred vector holds, and the remainder with the scalar
+ * kernel. Needs the jdk.incubator.vector module at compile and run time, so it lives in its own source root that
+ * is compiled separately, against the classes of src. {@link AabbDistanceKernels} only loads this class when the
+ * module is present.
+ */
+class VectorAabbDistanceKernel implements AabbDistanceKernel
+{
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void computeDistances(AabbBatch batch, float x, float y, float z, float[] distances)
+    {
+        int loopBound = SPECIES.loopBound(batch.size());
+        int i = 0;
+
+        for (; i < loopBound; i += SPECIES.length())
+        {
+            FloatVector dx = distanceOnAxis(batch.minX, batch.maxX, i, x);
+            FloatVector dy = distanceOnAxis(batch.minY, batch.maxY, i, y);
+            FloatVector dz = distanceOnAxis(batch.minZ, batch.maxZ, i, z);
+
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz)).lanewise(VectorOperators.SQRT).intoArray(distances, i);
+        }
+
+        ScalarAabbDistanceKernel.computeDistances(batch, x, y, z, distances, i);
+    }
+
+    // max(min - p, p - max, 0) for every lane
+    private static FloatVector distanceOnAxis(float[] minimums, float[] maximums, int offset, float point)
+    {
+        FloatVector below = FloatVector.fromArray(SPECIES, minimums, offset).sub(point);
+        FloatVector above = FloatVector.fromArray(SPECIES, maximums, offset).neg().add(point);
+
+        return below.max(above).max(0.0f);
+    }
+}
@@ -1,4 +1,6 @@
 import camera.Camera;
+import movement.InputEvent;
+import movement.InputQueue;
 import movement.MovementHandler;
 import org.lwjgl.glfw.GLFWCursorPosCallback;
 import org.lwjgl.glfw.GLFWKeyCallback;
@@ -10,9 +12,15 @@ import static org.lwjgl.glfw.GLFW.*;
 
 /**
  * Created by msi1 on 7/6/2018.
+ * <p>
+ * The GLFW callbacks only record what happened in an {@link InputQueue}. The simulation applies the events to the
+ * camera and the scene in {@link #processInput(long)} at the start of every tick. The queue never drops an event,
+ * see {@link InputQueue} for what happens while it is full.
  */
-public class GLCallbackHandler // TODO events
+public class GLCallbackHandler
 {
+    private static final int INPUT_QUEUE_CAPACITY = 1024;
+
     private Camera camera;
     private GLFWKeyCallback keyCallback;
     private GLFWMouseButtonCallback mouseButtonCallback;
@@ -20,6 +28,9 @@ public class GLCallbackHandler // TODO events
     private MovementHandler movementHandler;
     private long window;
 
+    private final InputQueue inputQueue = new InputQueue(INPUT_QUEUE_CAPACITY);
+    private final InputEvent inputEvent = new InputEvent(); // simulation thread only
+
     public GLCallbackHandler(Camera camera, MovementHandler movementHandler)
     {
         this.camera = camera;
@@ -49,6 +60,116 @@ public class GLCallbackHandler // TODO events
         return cursorPosCallback;
     }
 
+    /**
+     * Hands events that waited for room in the queue on to the simulation. Call on the thread that polls the window
+     * events, after every poll.
+     */
+    public void flushInput()
+    {
+        inputQueue.flush();
+    }
+
+    /**
+     * Applies the events that happened up to the given time. Cursor movement is summed up first, so the camera
+     * front is recomputed once per tick rather than once per cursor event. Simulation thread only.
+     */
+    public void processInput(long until)
+    {
+        float xOffset = 0.0f;
+        float yOffset = 0.0f;
+
+        while (inputQueue.poll(until, inputEvent))
+        {
+            switch (inputEvent.getType())
+            {
+                case InputEvent.KEY_PRESSED:
+                    handlePressEvent(inputEvent.getKey());
+                    break;
+                case InputEvent.KEY_RELEASED:
+                    handleReleaseEvent(inputEvent.getKey());
+                    break;
+                case InputEvent.CURSOR_MOVED:
+                    xOffset += inputEvent.getX();
+                    yOffset += inputEvent.getY();
+                    break;
+            }
+        }
+
+        if (xOffset != 0.0f || yOffset != 0.0f)
+        {
+            updateCameraFront(xOffset * 0.5f, yOffset * 0.5f);
+        }
+    }
+
+    private void updateCameraFront(float xOffset, float yOffset)
+    {
+        camera.updatePitchAndYaw(yOffset, xOffset);
+        float yaw = camera.getYaw();
+        float pitch = camera.getPitch();
+
+        Vector3f newCameraFront = new Vector3f();
+
+        newCameraFront.x = (float) (Math.cos(Math.toRadians(yaw)) * Math.cos(Math.toRadians(pitch)));
+        newCameraFront.y = (float) Math.sin(Math.toRadians(pitch));
+        newCameraFront.z = (float) (Math.sin(Math.toRadians(yaw)) * Math.cos(Math.toRadians(pitch)));
+        newCameraFront = newCameraFront.normalize();
+        camera.setFront(newCameraFront);
+    }
+
+    private void handleReleaseEvent(int key)
+    {
+        if (key == GLFW_KEY_W)
+        {
+            camera.addSpeed(0, 0, -0.002f);
+        } else if (key == GLFW_KEY_S)
+        {
+            camera.addSpeed(0, 0, 0.002f);
+        } else if (key == GLFW_KEY_A)
+        {
+            camera.addSpeed(0.002f, 0, 0);
+        } else if (key == GLFW_KEY_D)
+        {
+            camera.addSpeed(-0.002f, 0, 0);
+        } else if (key == GLFW_KEY_LEFT_SHIFT)
+        {
+            camera.setRunning(false);
+        }
+    }
+
+    private void handlePressEvent(int key)
+    {
+        if (key == GLFW_KEY_W)
+        {
+            camera.addSpeed(0, 0, 0.002f);
+        } else if (key == GLFW_KEY_S)
+        {
+            camera.addSpeed(0, 0, -0.002f);
+        } else if (key == GLFW_KEY_A)
+        {
+            camera.addSpeed(-0.002f, 0, 0);
+        } else if (key == GLFW_KEY_D)
+        {
+            camera.addSpeed(0.002f, 0, 0);
+        } else if (key == GLFW_KEY_E)
+        {
+            movementHandler.open();
+        } else if (key == GLFW_KEY_LEFT_SHIFT)
+        {
+            camera.setRunning(true);
+        } else if (key == GLFW_KEY_SPACE)
+        {
+            camera.addSpeed(0.0f, -0.012f, 0.0f);
+            camera.addAcceleration(0.0f, 0.0005f, 0.0f);
+            camera.setJumping(true);
+        } else if (key == GLFW_KEY_F)
+        {
+            movementHandler.increaseMinutes(1);
+        } else if (key == GLFW_KEY_H)
+        {
+            movementHandler.increaseHours(1);
+        }
+    }
+
     private class MyCursorPosCallback extends GLFWCursorPosCallback
     {
         private boolean initialized = false;
@@ -65,28 +186,13 @@ public class GLCallbackHandler // TODO events
                 return;
             }
 
-            float yaw, pitch;
-
             float xPos = (float) xpos;
             float yPos = (float) ypos;
 
-            float xOffset = (xPos - prevX) * 0.5f;
-            float yOffset = -(prevY - yPos) * 0.5f;
-
-            camera.updatePitchAndYaw(yOffset, xOffset);
-            yaw = camera.getYaw();
-            pitch = camera.getPitch();
+            inputQueue.add(InputEvent.CURSOR_MOVED, 0, xPos - prevX, yPos - prevY, System.nanoTime());
 
             prevX = xPos;
             prevY = yPos;
-
-            Vector3f newCameraFront = new Vector3f();
-
-            newCameraFront.x = (float) (Math.cos(Math.toRadians(yaw)) * Math.cos(Math.toRadians(pitch)));
-            newCameraFront.y = (float) Math.sin(Math.toRadians(pitch));
-            newCameraFront.z = (float) (Math.sin(Math.toRadians(yaw)) * Math.cos(Math.toRadians(pitch)));
-            newCameraFront = newCameraFront.normalize();
-            camera.setFront(newCameraFront);
         }
     }
 
@@ -108,67 +214,16 @@ public class GLCallbackHandler // TODO events
         {
             if (action == GLFW_PRESS)
             {
-                handlePressEvent(key);
-            } else if (action == GLFW_RELEASE)
-            {
-                handleReleaseEvent(key);
-            }
-        }
+                // closing the window belongs to the thread that owns it
+                if (key == GLFW_KEY_ESCAPE)
+                {
+                    glfwSetWindowShouldClose(window, true);
+                }
 
-        private void handleReleaseEvent(int key)
-        {
-            if (key == GLFW_KEY_W)
-            {
-                camera.addSpeed(0, 0, -0.002f);
-            } else if (key == GLFW_KEY_S)
-            {
-                camera.addSpeed(0, 0, 0.002f);
-            } else if (key == GLFW_KEY_A)
-            {
-                camera.addSpeed(0.002f, 0, 0);
-            } else if (key == GLFW_KEY_D)
-            {
-                camera.addSpeed(-0.002f, 0, 0);
-            } else if (key == GLFW_KEY_LEFT_SHIFT)
-            {
-                camera.setRunning(false);
-            }
-        }
-
-        private void handlePressEvent(int key)
-        {
-            if (key == GLFW_KEY_W)
-            {
-                camera.addSpeed(0, 0, 0.002f);
-            } else if (key == GLFW_KEY_S)
-            {
-                camera.addSpeed(0, 0, -0.002f);
-            } else if (key == GLFW_KEY_A)
-            {
-                camera.addSpeed(-0.002f, 0, 0);
-            } else if (key == GLFW_KEY_D)
-            {
-                camera.addSpeed(0.002f, 0, 0);
-            } else if (key == GLFW_KEY_E)
-            {
-                movementHandler.open();
-            } else if (key == GLFW_KEY_LEFT_SHIFT)
-            {
-                camera.setRunning(true);
-            } else if (key == GLFW_KEY_SPACE)
-            {
-                camera.addSpeed(0.0f, -0.012f, 0.0f);
-                camera.addAcceleration(0.0f, 0.0005f, 0.0f);
-                camera.setJumping(true);
-            } else if (key == GLFW_KEY_ESCAPE)
-            {
-                glfwSetWindowShouldClose(window, true);
-            } else if (key == GLFW_KEY_F)
-            {
-                movementHandler.increaseMinutes(1);
-            } else if (key == GLFW_KEY_H)
+                inputQueue.add(InputEvent.KEY_PRESSED, key, 0.0f, 0.0f, System.nanoTime());
+            } else if (action == GLFW_RELEASE)
             {
-                movementHandler.increaseHours(1);
+                inputQueue.add(InputEvent.KEY_RELEASED, key, 0.0f, 0.0f, System.nanoTime());
             }
         }
     }
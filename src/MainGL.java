@@ -1,23 +1,34 @@
 import camera.Camera;
 import model.*;
 import model.shape.Cube;
-import model.shape.DrawData;
+import movement.FrameState;
 import movement.MovementHandler;
+import movement.SimulationLoop;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.glfw.GLFWVidMode;
 import org.lwjgl.opengl.*;
 import org.lwjgl.system.MemoryStack;
+import render.Cell;
+import render.GLState;
+import render.GpuParticleRenderer;
+import render.InstancedRenderer;
 import render.NormalRenderer;
+import render.Portal;
+import render.PortalCuller;
+import render.RenderQueue;
+import render.SceneGeometry;
+import shader.CameraBlock;
+import texture.TextureCache;
+import texture.TextureLoader;
 import util.Matrix4f;
 import util.Vector3f;
 import util.Vector4f;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
 import static org.lwjgl.glfw.GLFW.*;
@@ -36,43 +47,60 @@ public class MainGL
     }
 
     private long window;
-    private ArrayList<Integer> vaos;
-    private ArrayList<Integer> vbos;
     private int windowWidth;
     private int windowHeight;
     private GLCallbackHandler callbackHandler;
     private MovementHandler movementHandler;
 
+    private static final String WINDOW_TITLE = "Hello World!";
     private static final float FOV = 70.0f;
     private static final float NEAR_PLANE = 0.01f;
     private static final float FAR_PLANE = 10000.0f;
+    // draw every cube as an instance of one shared unit cube instead of one draw call per cube, the scene's own
+    // vertex buffers are then never built
+    private static final boolean INSTANCED_RENDERING = true;
+    // drop the CPU copies of the static scene geometry once it is in the vertex buffers
+    private static final boolean RELEASE_UPLOADED_GEOMETRY = true;
+    // time per frame that may be spent uploading textures decoded in the background
+    private static final long TEXTURE_UPLOAD_BUDGET_NANOS = 2_000_000L;
+    // only draw the outdoors from inside the room when it can be seen through the door or the window
+    private static final boolean PORTAL_CULLING = true;
+    // live particles the grass emitters can have at once
+    private static final int PARTICLE_CAPACITY = 131_072;
+    // simulate and draw the particles on the GPU instead of integrating them here and drawing them as cubes
+    private static final boolean GPU_PARTICLES = true;
+    // movement is interpolated between simulation ticks, so it stays smooth at any frame rate without v-sync too
+    private static final boolean VSYNC = true;
     private Matrix4f projectionMatrix;
-    private Vector3f diffuseColor; // TODO change this with time
     private Camera camera;
 
-    private HashMap<String, GLObject> objectsMap;
+    // shared with the simulation thread, which looks objects up by name
+    private ConcurrentHashMap<String, GLObject> objectsMap;
     private ArrayList<GLObject> objects;
     private ArrayList<Tree> trees;
     private ArrayList<Grass> grasses;
+    private SceneGeometry sceneGeometry;
     private NormalRenderer normalRenderer;
+    private InstancedRenderer instancedRenderer;
+    private RenderQueue renderQueue;
+    private CameraBlock cameraBlock;
+    private double lastStatisticsTime;
     private ParticleMaster particleMaster;
-
-    private int startPositionIndexForGrassCubes;
-    private int startNormalIndexForGrassCubes;
-    private int startTextureIndexForGrassCubes;
+    private Cube particleCube;
+    private final Matrix4f particleTransformation = new Matrix4f();
+    private GpuParticleRenderer gpuParticleRenderer;
 
     public MainGL()
     {
-        this.vaos = new ArrayList<>();
-        this.vbos = new ArrayList<>();
         this.objects = new ArrayList<>();
         this.trees = new ArrayList<>();
         this.grasses = new ArrayList<>();
-        this.objectsMap = new HashMap<>();
-        this.diffuseColor = new Vector3f(1.0f, 1.0f, 1.0f);
+        this.objectsMap = new ConcurrentHashMap<>();
+        this.renderQueue = new RenderQueue(FAR_PLANE);
         this.camera = new Camera(new Vector3f(0.0f, 8.5f / 25.0f, 8.0f / 25.0f));
         this.movementHandler = new MovementHandler(camera, objectsMap, trees);
         this.callbackHandler = new GLCallbackHandler(camera, movementHandler);
+        this.movementHandler.setInputProcessor(callbackHandler::processInput);
         this.windowWidth = 1200;
         this.windowHeight = 800;
     }
@@ -108,7 +136,7 @@ public class MainGL
         glfwWindowHint(GLFW_RESIZABLE, GLFW_TRUE); // the window will be resizable
 
         // Create the window
-        window = glfwCreateWindow(windowWidth, windowHeight, "Hello World!", NULL, NULL);
+        window = glfwCreateWindow(windowWidth, windowHeight, WINDOW_TITLE, NULL, NULL);
         if ( window == NULL )
             throw new RuntimeException("Failed to create the GLFW window");
 
@@ -140,7 +168,7 @@ public class MainGL
         // Make the OpenGL context current
         glfwMakeContextCurrent(window);
         // Enable v-sync
-        glfwSwapInterval(1);
+        glfwSwapInterval(VSYNC ? 1 : 0);
 
         // Make the window visible
         glfwShowWindow(window);
@@ -151,21 +179,38 @@ public class MainGL
         createProjectionMatrix();
         addObjects();
         addTrees();
+        if (PORTAL_CULLING)
+        {
+            addCells();
+        }
 //        addGrasses();
         addCallbacks();
         movementHandler.startThread();
-        createVao();
-        setVao();
+        if (!INSTANCED_RENDERING)
+        {
+            // instances are drawn from the unit cube, so the scene's own vertices are only needed without them
+            uploadScene();
+        }
         createRenderers();
-        startLightingThread();
     }
 
-    private void addGrasses()
+    private void addGrasses() throws FileNotFoundException
     {
         Grass firstGrass = new Grass(new Vector3f(0.0f, 15.2f / 25.0f, -16.0f / 25.0f), new Vector3f(0.0f, 0.5f, 0.0f));
         grasses.add(firstGrass);
 
-        particleMaster = new ParticleMaster(grasses);
+        if (GPU_PARTICLES)
+        {
+            gpuParticleRenderer = new GpuParticleRenderer(grasses, "textures\\glassTile.png");
+            return;
+        }
+
+        particleMaster = new ParticleMaster(grasses, PARTICLE_CAPACITY);
+        // every particle is drawn as an instance of this one cube, moved to the particle's position
+        particleCube = new Cube(new Vector3f(0.0f, 0.0f, 0.0f), 0.1f, 0.1f, 0.1f, Visibility.VisibleOutside,
+                "textures\\glassTile.png");
+
+        new SimulationLoop(time -> particleMaster.update(SimulationLoop.TICK_SECONDS)).start();
     }
 
     private void addTrees()
@@ -186,209 +231,172 @@ public class MainGL
         trees.add(threeTree);
     }
 
-    private void startLightingThread()
+    private void addCells()
     {
-        new Thread(() ->
+        String[] shell = {"Front Wall", "Left Wall", "Right Wall", "Back Wall", "Roof", "Door", "Window"};
+        String[] interior = {"Table", "Clock", "Floor"};
+
+        BoundingVolume roomRegion = new BoundingVolume();
+        for (String name : new String[] {"Front Wall", "Left Wall", "Right Wall", "Back Wall", "Roof", "Floor"})
         {
-            Vector3f goodLight = new Vector3f(1.0f, 1.0f, 1.0f);
-            Vector3f mediumLight = new Vector3f(0.5f, 0.5f, 0.5f);
-            Vector3f zeroLight = new Vector3f(0.0f, 0.0f, 0.0f);
+            roomRegion.include(objectsMap.get(name).updateBounds());
+        }
 
-            while (true)
-            {
-                try
-                {
-                    diffuseColor = goodLight;
-                    Thread.sleep(5000);
-                    diffuseColor = mediumLight;
-                    Thread.sleep(50);
-                    diffuseColor = goodLight;
-                    Thread.sleep(50);
-                    diffuseColor = mediumLight;
-                    Thread.sleep(50);
-                    diffuseColor = goodLight;
-                    Thread.sleep(50);
-                    diffuseColor = mediumLight;
-                    Thread.sleep(50);
-                    diffuseColor = goodLight;
-                    Thread.sleep(50);
-                    diffuseColor = mediumLight;
-                    Thread.sleep(50);
-                    diffuseColor = zeroLight;
-                    Thread.sleep(5000);
-                } catch (InterruptedException e)
-                {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
-    }
+        PortalCuller portalCuller = new PortalCuller();
+        Cell room = portalCuller.addCell(new Cell("Room", roomRegion));
+        Cell outdoors = portalCuller.addCell(new Cell("Outdoors"));
 
-    private void createRenderers() throws FileNotFoundException
-    {
-        normalRenderer = new NormalRenderer("NormalVertexShader.vert",
-                "NormalFragmentShader.frag", vaos.get(0));
-        normalRenderer.loadProjectionMatrix(projectionMatrix);
-    }
-
-    private void setVao()
-    {
-        ArrayList<DrawData> drawData = collectDrawData();
-        ArrayList<Float[]> positions = collectPositions(drawData);
-        ArrayList<Float[]> normals = collectNormals(drawData);
-        ArrayList<Float[]> textureCoordinates = collectTextureCoordinates(drawData);
-
-        startPositionIndexForGrassCubes = setVaoIndex(positions, 0, 3);
-        startTextureIndexForGrassCubes = setVaoIndex(textureCoordinates, 1, 2);
-        startNormalIndexForGrassCubes = setVaoIndex(normals, 2, 3);
-    }
+        // the openings are where the door and the window sit while they are closed
+        GLObject door = objectsMap.get("Door");
+        BoundingVolume doorOpening = new BoundingVolume();
+        doorOpening.set(door.updateBounds());
+        new Portal(room, outdoors, doorOpening, door, false);
 
-    private ArrayList<Float[]> collectTextureCoordinates(ArrayList<DrawData> drawData)
-    {
-        ArrayList<Float[]> textureCoordinates = new ArrayList<>();
+        // the window is glass, so the outdoors can be seen through it even while it is closed
+        GLObject windowObj = objectsMap.get("Window");
+        BoundingVolume windowOpening = new BoundingVolume();
+        windowOpening.set(windowObj.updateBounds());
+        new Portal(room, outdoors, windowOpening, windowObj, true);
 
-        for (DrawData data : drawData)
+        // the walls are seen from both sides
+        for (String name : shell)
         {
-            textureCoordinates.add(data.getTextureCoordinates());
+            portalCuller.assign(objectsMap.get(name), room);
+            portalCuller.assign(objectsMap.get(name), outdoors);
         }
 
-        return textureCoordinates;
-    }
+        for (String name : interior)
+        {
+            portalCuller.assign(objectsMap.get(name), room);
+        }
 
-    private ArrayList<Float[]> collectNormals(ArrayList<DrawData> drawData)
-    {
-        ArrayList<Float[]> normals = new ArrayList<>();
+        portalCuller.assign(objectsMap.get("Yard"), outdoors);
 
-        for (DrawData data : drawData)
+        for (Tree tree : trees)
         {
-            normals.add(data.getNormals());
+            portalCuller.assign(tree, outdoors);
         }
 
-        return normals;
+        renderQueue.setPortalCuller(portalCuller);
     }
 
-    private ArrayList<Float[]> collectPositions(ArrayList<DrawData> drawData)
+    private void createRenderers() throws FileNotFoundException
     {
-        ArrayList<Float[]> positions = new ArrayList<>();
-
-        for (DrawData data : drawData)
+        if (INSTANCED_RENDERING)
+        {
+            instancedRenderer = new InstancedRenderer("InstancedVertexShader.vert", "NormalFragmentShader.frag");
+        } else
         {
-            positions.add(data.getVertices());
+            normalRenderer = new NormalRenderer("NormalVertexShader.vert",
+                    "NormalFragmentShader.frag", sceneGeometry.getVaoId());
         }
 
-        return positions;
+        cameraBlock = new CameraBlock(projectionMatrix);
     }
 
-    private ArrayList<DrawData> collectDrawData()
+    private void uploadScene()
     {
-        ArrayList<DrawData> drawData = new ArrayList<>();
+        int cubeCount = 0;
+        for (GLObject object : objects)
+        {
+            cubeCount += object.getCubicParts().size();
+        }
+        for (Tree tree : trees)
+        {
+            cubeCount += tree.getCubeCount();
+        }
+
+        sceneGeometry = new SceneGeometry(cubeCount);
 
         for (GLObject object : objects)
         {
-            ArrayList<Cube> cubes = object.getCubicParts();
-            for (Cube cube : cubes)
-            {
-                drawData.add(cube.getDrawData());
-            }
+            uploadGeometry(object.getCubicParts(), RELEASE_UPLOADED_GEOMETRY);
         }
 
         for (Tree tree : trees)
         {
-            ArrayList<Cube> cubes = tree.getCubes();
-            for (Cube cube : cubes)
-            {
-                drawData.add(cube.getDrawData());
-            }
+            uploadGeometry(tree.getCubes(), RELEASE_UPLOADED_GEOMETRY);
         }
-
-        return drawData;
     }
 
-    private int setVaoIndex(ArrayList<Float[]> list, int index, int size)
+    private void uploadGeometry(ArrayList<Cube> cubes, boolean releaseGeometry)
     {
-        int vaoId = vaos.get(0);
-        int finalSize = GLUtil.findSize(list);
-        GL30.glBindVertexArray(vaoId);
+        sceneGeometry.add(cubes);
 
-        try(MemoryStack stack = MemoryStack.stackPush())
+        if (releaseGeometry)
         {
-            FloatBuffer buffer = stack.mallocFloat(finalSize);
-            for (Float[] array : list)
+            for (Cube cube : cubes)
             {
-                buffer.put(GLUtil.toPrimitiveFloatArray(array));
+                cube.releaseGeometry();
             }
-
-            buffer.flip();
-
-            int vboId = GL15.glGenBuffers();
-            vbos.add(vboId);
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
-            GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, 4 * size, 0);
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
         }
+    }
 
-        GL30.glBindVertexArray(0);
-
-        return finalSize;
+    /**
+     * Adds an object to the scene while it runs. Without instanced rendering only its own cubes are uploaded, into
+     * free space of the scene's vertex buffers, and the object can be looked up by its name like the objects of the
+     * initial scene. Render thread only; the object is drawn but not collided with.
+     * <p>
+     * Spawned objects keep their CPU geometry, so they can be spawned again after {@link #despawn(GLObject)}.
+     */
+    public void spawn(String name, GLObject object)
+    {
+        spawnCubes(object.getCubicParts());
+        objects.add(object);
+        objectsMap.put(name, object);
     }
 
-    private ArrayList<Cube> loadGrasses()
+    public void spawn(Tree tree)
     {
-        ArrayList<Cube> allCubes = new ArrayList<>();
-        ArrayList<DrawData> allDrawData = new ArrayList<>();
+        spawnCubes(tree.getCubes());
+        trees.add(tree);
+    }
 
-        for (Grass grass : grasses)
+    private void spawnCubes(ArrayList<Cube> cubes)
+    {
+        for (Cube cube : cubes)
         {
-            allCubes.addAll(grass.getCubes());
+            cube.acquireTexture();
         }
 
-        for (Cube cube : allCubes)
+        if (!INSTANCED_RENDERING)
         {
-            allDrawData.add(cube.getDrawData());
+            uploadGeometry(cubes, false);
         }
-
-        ArrayList<Float[]> positions = collectPositions(allDrawData);
-        ArrayList<Float[]> normals = collectNormals(allDrawData);
-        ArrayList<Float[]> textureCoordinates = collectTextureCoordinates(allDrawData);
-
-        setVaoIndex(positions, 0, 3, startPositionIndexForGrassCubes);
-        setVaoIndex(textureCoordinates, 1, 2, startTextureIndexForGrassCubes);
-        setVaoIndex(normals, 2, 3, startNormalIndexForGrassCubes);
-
-        return allCubes;
     }
 
-    private void setVaoIndex(ArrayList<Float[]> list, int index, int size, int startingIndex)
+    /**
+     * Stops drawing the object, frees its part of the scene's vertex buffers and gives its textures back.
+     * Render thread only.
+     */
+    public void despawn(GLObject object)
     {
-        int vaoId = vaos.get(0);
-        GL30.glBindVertexArray(vaoId);
-
-        try(MemoryStack stack = MemoryStack.stackPush())
+        if (objects.remove(object))
         {
-            FloatBuffer buffer = stack.mallocFloat(GLUtil.findSize(list));
-            for (Float[] array : list)
-            {
-                buffer.put(GLUtil.toPrimitiveFloatArray(array));
-            }
-
-            buffer.flip();
-
-            int vboId = GL15.glGenBuffers();
-            vbos.add(vboId);
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
-            GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, 4 * size, startingIndex);
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            objectsMap.values().remove(object);
+            despawnCubes(object.getCubicParts());
         }
+    }
 
-        GL30.glBindVertexArray(0);
+    public void despawn(Tree tree)
+    {
+        if (trees.remove(tree))
+        {
+            despawnCubes(tree.getCubes());
+        }
     }
 
-    private void createVao() // TODO this place might cause a problem
+    private void despawnCubes(ArrayList<Cube> cubes)
     {
-        int vaoId = GL30.glGenVertexArrays();
-        vaos.add(vaoId);
+        if (!INSTANCED_RENDERING)
+        {
+            sceneGeometry.remove(cubes);
+        }
+
+        for (Cube cube : cubes)
+        {
+            cube.cleanUp();
+        }
     }
 
     private void createProjectionMatrix()
@@ -544,78 +552,142 @@ public class MainGL
         while ( !glfwWindowShouldClose(window) ) {
             glEnable(GL_DEPTH_TEST);
             glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the framebuffer
+            GLState.resetCounters();
+
+            if (TextureLoader.getInstance().hasPending())
+            {
+                TextureLoader.getInstance().uploadPending(TEXTURE_UPLOAD_BUDGET_NANOS);
+            }
 
 //            for (GLObject object : objects)
 //            {
 //                normalRenderer.render(object, camera, diffuseColor);
 //            }
-//            for (Grass grass : grasses)
-//            {
-//                grass.addParticle();
-//            }
-//
-//            ArrayList<Cube> cubes = loadGrasses();
+            // one consistent simulation state for the whole frame, the camera is drawn between its two ticks
+            FrameState frameState = movementHandler.acquireFrameState();
+            camera.interpolate(frameState, System.nanoTime());
 
-            int cubeCounter = 0;
+            // view and projection are shared by every draw of the frame, so they go up once
+            cameraBlock.update(camera);
+            fillRenderQueue(frameState, door, windowObj);
 
-            for (GLObject object : objects)
+            if (INSTANCED_RENDERING)
             {
-                float selectionEffect = 1.0f;
-                float alpha = 1.0f;
-
-                if ((object == door && movementHandler.isDoorSelected()) || (object == windowObj && movementHandler.isWindowSelected()))
-                {
-                    selectionEffect = 0.5f;
-                }
-                if (object == windowObj)
-                {
-                    alpha = 0.5f;
-                }
-
-                normalRenderer.render(object, camera, diffuseColor, cubeCounter, selectionEffect, alpha);
-                cubeCounter += object.getCubicParts().size();
+                instancedRenderer.render(renderQueue, frameState.getDiffuseColor());
+            } else
+            {
+                normalRenderer.render(renderQueue, frameState.getDiffuseColor());
             }
 
-            for (Tree tree : trees)
+            if (gpuParticleRenderer != null)
             {
-                float selectionEffect = 1.0f;
-                float alpha = 1.0f;
-
-                normalRenderer.render(tree, camera, diffuseColor, cubeCounter, selectionEffect, alpha);
-                cubeCounter += tree.getNumberOfTrees();
+                gpuParticleRenderer.update(System.nanoTime());
+                gpuParticleRenderer.render(frameState.getDiffuseColor());
             }
 
-//            for (Cube cube : cubes)
-//            {
-//                float selectionEffect = 1.0f;
-//                float alpha = 1.0f;
-//
-//                normalRenderer.renderParticleCube(cube, camera, diffuseColor, cubeCounter, selectionEffect, alpha);
-//                cubeCounter++;
-//            }
+            reportStatistics();
 
             // Poll for window events. The key callback above will only be
             // invoked during this call.
             glfwPollEvents();
+            callbackHandler.flushInput();
             glfwSwapBuffers(window); // swap the color buffers
         }
 
         cleanUp();
     }
 
+    private void fillRenderQueue(FrameState frameState, GLObject door, GLObject windowObj)
+    {
+        renderQueue.clear(camera.getRenderPosition(), cameraBlock.getProjectionViewMatrix());
+        for (GLObject object : objects)
+        {
+            float selectionEffect = getSelectionEffect(frameState, object, door, windowObj);
+            float alpha = getAlpha(object, windowObj);
+
+            renderQueue.submit(object, selectionEffect, alpha);
+        }
+
+        for (Tree tree : trees)
+        {
+            float selectionEffect = 1.0f;
+            float alpha = 1.0f;
+
+            renderQueue.submit(tree, selectionEffect, alpha);
+        }
+
+        // particles have no geometry in the scene's vertex buffers, so only the instanced renderer can draw them
+        if (particleMaster != null && INSTANCED_RENDERING)
+        {
+            submitParticles(particleMaster.acquireSnapshot());
+        }
+
+        renderQueue.sort();
+    }
+
+    private void submitParticles(ParticleSnapshot snapshot)
+    {
+        float[] positions = snapshot.getPositions();
+
+        for (int i = 0; i < snapshot.getCount(); i++)
+        {
+            particleTransformation.setTranslation(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
+            renderQueue.submit(particleCube, particleTransformation, 1.0f, 1.0f);
+        }
+    }
+
+    // shows the draw statistics of the last frame in the title bar, refreshed once per second
+    private void reportStatistics()
+    {
+        double now = glfwGetTime();
+
+        if (now - lastStatisticsTime < 1.0)
+        {
+            return;
+        }
+
+        lastStatisticsTime = now;
+        glfwSetWindowTitle(window, WINDOW_TITLE + " - visible cubes: " + renderQueue.size() + ", culled: "
+                + renderQueue.getCulledCubes() + ", draw calls: " + renderQueue.getDrawCalls()
+                + ", texture binds: " + renderQueue.getTextureBinds() + ", GL calls issued: "
+                + GLState.getIssuedCalls() + ", skipped: " + GLState.getSkippedCalls());
+    }
+
+    private float getSelectionEffect(FrameState frameState, GLObject object, GLObject door, GLObject windowObj)
+    {
+        if ((object == door && frameState.isDoorSelected()) || (object == windowObj && frameState.isWindowSelected()))
+        {
+            return 0.5f;
+        }
+
+        return 1.0f;
+    }
+
+    private float getAlpha(GLObject object, GLObject windowObj)
+    {
+        return object == windowObj ? 0.5f : 1.0f;
+    }
+
     private void cleanUp()
     {
-        for (int vaoId : vaos)
+        if (INSTANCED_RENDERING)
+        {
+            instancedRenderer.cleanUp();
+        } else
         {
-            GL30.glDeleteVertexArrays(vaoId);
+            sceneGeometry.cleanUp();
+            normalRenderer.cleanUp();
         }
 
-        for (int vboId : vbos)
+        if (gpuParticleRenderer != null)
         {
-            GL15.glDeleteBuffers(vboId);
+            gpuParticleRenderer.cleanUp();
         }
 
-        normalRenderer.cleanUp();
+        cameraBlock.cleanUp();
+
+        TextureLoader.getInstance().cleanUp();
+        TextureCache.cleanUp();
 
         // TODO clean cubes and objects here?
     }
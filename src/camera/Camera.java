@@ -1,6 +1,8 @@
 package camera;
 
+import movement.FrameState;
 import movement.MovementHandler;
+import movement.SimulationLoop;
 import util.Matrix4f;
 import util.Vector3f;
 import util.Vector4f;
@@ -21,6 +23,19 @@ public class Camera
     private boolean jumping;
     private float mainY;
 
+    // the state drawn this frame, interpolated between the two newest published ones on the render thread
+    private final Vector3f renderPosition = new Vector3f();
+    private final Vector3f renderFront = new Vector3f();
+
+    // scratch values for getViewMatrix(Matrix4f), which only runs on the render thread
+    private final Vector3f viewRight = new Vector3f();
+    private final Vector3f viewUp = new Vector3f();
+    private final Vector3f viewFront = new Vector3f();
+    private final Vector4f firstColumn = new Vector4f();
+    private final Vector4f secondColumn = new Vector4f();
+    private final Vector4f thirdColumn = new Vector4f();
+    private final Vector4f fourthColumn = new Vector4f(0.0f, 0.0f, 0.0f, 1.0f);
+
     public Camera(Vector3f position)
     {
         this.position = position;
@@ -42,6 +57,9 @@ public class Camera
         this.jumping = false;
 
         this.mainY = position.y;
+
+        this.renderPosition.set(position);
+        this.renderFront.set(front);
     }
 
     public void update(MovementHandler movementHandler)
@@ -80,6 +98,28 @@ public class Camera
         movementHandler.afterEffects();
     }
 
+    /**
+     * Blends the camera of the frame state's two ticks for the frame drawn at the given time, see
+     * {@link SimulationLoop#getInterpolationAlpha}. The result is what {@link #getViewMatrix(Matrix4f)} and
+     * {@link #getRenderPosition()} return until the next call. Render thread only.
+     */
+    public void interpolate(FrameState state, long now)
+    {
+        float alpha = SimulationLoop.getInterpolationAlpha(state.getTime(), now);
+        state.getPreviousPosition().lerpInto(state.getPosition(), alpha, renderPosition);
+        state.getPreviousFront().lerpInto(state.getFront(), alpha, renderFront);
+
+        if (renderFront.lengthSquared() > 0.0f)
+        {
+            renderFront.normalizeLocal();
+        }
+    }
+
+    public Vector3f getRenderPosition()
+    {
+        return renderPosition;
+    }
+
     public void addSpeed(float dx, float dy, float dz)
     {
         xSpeed += dx;
@@ -134,6 +174,26 @@ public class Camera
 //        return translationMatrix.multiply(zRotMatrix.multiply(yRotMatrix.multiply(xRotMatrix)));
     }
 
+    /**
+     * View matrix of the state blended by the last {@link #interpolate(FrameState, long)}.
+     */
+    public Matrix4f getViewMatrix(Matrix4f dst)
+    {
+        Vector3f front = renderFront;
+        Vector3f position = renderPosition;
+
+        viewFront.set(front).scaleLocal(-1.0f).normalizeLocal();
+        front.crossInto(up, viewRight);
+        front.crossInto(viewRight, viewUp);
+
+        dst.set(firstColumn.set(viewRight.x, viewUp.x, viewFront.x, 0.0f),
+                secondColumn.set(viewRight.y, viewUp.y, viewFront.y, 0.0f),
+                thirdColumn.set(viewRight.z, viewUp.z, viewFront.z, 0.0f),
+                fourthColumn);
+
+        return dst.mulTranslation(-position.x, -position.y, -position.z);
+    }
+
     public Vector3f getPosition()
     {
         return position;
@@ -199,6 +259,11 @@ public class Camera
         this.pitch = pitch;
     }
 
+    public Vector3f getFront()
+    {
+        return front;
+    }
+
     public void setFront(Vector3f front)
     {
         this.front = front;
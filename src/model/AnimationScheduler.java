@@ -0,0 +1,132 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Advances every animated {@link TransformationData} from one shared thread at a fixed timestep.
+ * Transformations register themselves when they get a goal they have not reached yet and are
+ * dropped again once they arrive, so the thread sleeps while nothing is animating.
+ */
+public class AnimationScheduler
+{
+    private static final long TICK_NANOS = 10_000_000L;
+    private static final AnimationScheduler INSTANCE = new AnimationScheduler();
+
+    private final Object lock = new Object();
+    private final ArrayList<TransformationData> pending; // guarded by lock
+    private final ArrayList<TransformationData> active;  // only touched by the scheduler thread
+
+    private AnimationScheduler()
+    {
+        this.pending = new ArrayList<>();
+        this.active = new ArrayList<>();
+
+        Thread thread = new Thread(this::run, "Animation scheduler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static AnimationScheduler getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Must not be called while holding the transformation's own lock; the scheduler thread
+     * takes the scheduler lock first and the transformation lock second.
+     */
+    void register(TransformationData transformationData)
+    {
+        synchronized (lock)
+        {
+            if (transformationData.scheduled)
+            {
+                return;
+            }
+
+            transformationData.scheduled = true;
+            pending.add(transformationData);
+            lock.notifyAll();
+        }
+    }
+
+    private void run()
+    {
+        long nextTick = System.nanoTime();
+
+        while (true)
+        {
+            try
+            {
+                if (drainPending())
+                {
+                    // we were idle, so do not try to catch up on the ticks we slept through
+                    nextTick = System.nanoTime();
+                }
+
+                step();
+
+                nextTick += TICK_NANOS;
+                long sleepNanos = nextTick - System.nanoTime();
+                if (sleepNanos > 0)
+                {
+                    Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+                } else if (sleepNanos < -TICK_NANOS * 10)
+                {
+                    nextTick = System.nanoTime();
+                }
+            } catch (InterruptedException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // returns true if the scheduler had to wait for work
+    private boolean drainPending() throws InterruptedException
+    {
+        boolean waited = false;
+
+        synchronized (lock)
+        {
+            while (active.isEmpty() && pending.isEmpty())
+            {
+                lock.wait();
+                waited = true;
+            }
+
+            active.addAll(pending);
+            pending.clear();
+        }
+
+        return waited;
+    }
+
+    private void step()
+    {
+        for (int i = active.size() - 1; i >= 0; i--)
+        {
+            TransformationData transformationData = active.get(i);
+
+            if (transformationData.animate())
+            {
+                continue;
+            }
+
+            synchronized (lock)
+            {
+                // a new goal may have arrived between animate() and here
+                if (transformationData.isAnimating())
+                {
+                    continue;
+                }
+
+                transformationData.scheduled = false;
+            }
+
+            int last = active.size() - 1;
+            active.set(i, active.get(last));
+            active.remove(last);
+        }
+    }
+}
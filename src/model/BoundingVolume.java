@@ -0,0 +1,167 @@
+package model;
+
+import util.Matrix4f;
+
+/**
+ * A world-space axis aligned bounding box together with the sphere around it, kept for cubes, objects and whole
+ * trees so they can be tested against the view frustum without touching their vertices.
+ */
+public class BoundingVolume
+{
+    private float minX, minY, minZ;
+    private float maxX, maxY, maxZ;
+    private float centerX, centerY, centerZ;
+    private float radius;
+
+    // scratch values for setTransformed
+    private final float[] matrix = new float[16];
+    private final float[] localMin = new float[3];
+    private final float[] localMax = new float[3];
+
+    public BoundingVolume()
+    {
+        setEmpty();
+    }
+
+    public void setEmpty()
+    {
+        minX = minY = minZ = Float.POSITIVE_INFINITY;
+        maxX = maxY = maxZ = Float.NEGATIVE_INFINITY;
+        centerX = centerY = centerZ = 0.0f;
+        radius = 0.0f;
+    }
+
+    public boolean isEmpty()
+    {
+        return minX > maxX;
+    }
+
+    public void set(BoundingVolume other)
+    {
+        minX = other.minX;
+        minY = other.minY;
+        minZ = other.minZ;
+        maxX = other.maxX;
+        maxY = other.maxY;
+        maxZ = other.maxZ;
+        centerX = other.centerX;
+        centerY = other.centerY;
+        centerZ = other.centerZ;
+        radius = other.radius;
+    }
+
+    /**
+     * Sets this volume to the box that encloses a local box after it has been transformed. Each world extent is
+     * the translation plus, per matrix element, the smaller or larger of its products with the local extents.
+     */
+    public BoundingVolume setTransformed(Matrix4f transformation, float localMinX, float localMinY, float localMinZ,
+                                         float localMaxX, float localMaxY, float localMaxZ)
+    {
+        transformation.toArray(matrix, 0);
+
+        localMin[0] = localMinX;
+        localMin[1] = localMinY;
+        localMin[2] = localMinZ;
+        localMax[0] = localMaxX;
+        localMax[1] = localMaxY;
+        localMax[2] = localMaxZ;
+
+        minX = maxX = matrix[12];
+        minY = maxY = matrix[13];
+        minZ = maxZ = matrix[14];
+
+        for (int column = 0; column < 3; column++)
+        {
+            minX += Math.min(matrix[column * 4] * localMin[column], matrix[column * 4] * localMax[column]);
+            maxX += Math.max(matrix[column * 4] * localMin[column], matrix[column * 4] * localMax[column]);
+            minY += Math.min(matrix[column * 4 + 1] * localMin[column], matrix[column * 4 + 1] * localMax[column]);
+            maxY += Math.max(matrix[column * 4 + 1] * localMin[column], matrix[column * 4 + 1] * localMax[column]);
+            minZ += Math.min(matrix[column * 4 + 2] * localMin[column], matrix[column * 4 + 2] * localMax[column]);
+            maxZ += Math.max(matrix[column * 4 + 2] * localMin[column], matrix[column * 4 + 2] * localMax[column]);
+        }
+
+        updateSphere();
+        return this;
+    }
+
+    /**
+     * Grows this volume so that it also encloses another one.
+     */
+    public void include(BoundingVolume other)
+    {
+        if (other.isEmpty())
+        {
+            return;
+        }
+
+        minX = Math.min(minX, other.minX);
+        minY = Math.min(minY, other.minY);
+        minZ = Math.min(minZ, other.minZ);
+        maxX = Math.max(maxX, other.maxX);
+        maxY = Math.max(maxY, other.maxY);
+        maxZ = Math.max(maxZ, other.maxZ);
+        updateSphere();
+    }
+
+    private void updateSphere()
+    {
+        centerX = (minX + maxX) * 0.5f;
+        centerY = (minY + maxY) * 0.5f;
+        centerZ = (minZ + maxZ) * 0.5f;
+
+        float dx = maxX - centerX;
+        float dy = maxY - centerY;
+        float dz = maxZ - centerZ;
+        radius = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    public float getMinX()
+    {
+        return minX;
+    }
+
+    public float getMinY()
+    {
+        return minY;
+    }
+
+    public float getMinZ()
+    {
+        return minZ;
+    }
+
+    public float getMaxX()
+    {
+        return maxX;
+    }
+
+    public float getMaxY()
+    {
+        return maxY;
+    }
+
+    public float getMaxZ()
+    {
+        return maxZ;
+    }
+
+    public float getCenterX()
+    {
+        return centerX;
+    }
+
+    public float getCenterY()
+    {
+        return centerY;
+    }
+
+    public float getCenterZ()
+    {
+        return centerZ;
+    }
+
+    public float getRadius()
+    {
+        return radius;
+    }
+}
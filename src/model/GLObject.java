@@ -16,6 +16,12 @@ public class GLObject
     private HashMap<String, Cube> importantParts;
     private TransformationData transformationData;
 
+    // world bounds of all cubes and the versions they were built from, render thread only
+    private final BoundingVolume bounds = new BoundingVolume();
+    private final Matrix4f boundsCubeMatrix = new Matrix4f();
+    private long boundsObjectVersion = -1;
+    private long boundsCubesVersion = -1;
+
     public GLObject(Vector3f pointOnAxis, RotationAxisType rotationAxisType)
     {
         this.cubicParts = new ArrayList<>();
@@ -82,6 +88,65 @@ public class GLObject
         return transformationData.getTransformationMatrix();
     }
 
+    public Matrix4f getTransformationMatrix(Matrix4f dst)
+    {
+        return transformationData.getTransformationMatrix(dst);
+    }
+
+    public long getTransformationVersion()
+    {
+        return transformationData.getVersion();
+    }
+
+    /**
+     * @return The render state taken by the last {@link #updateBounds()}
+     */
+    public TransformationState getRenderState()
+    {
+        return transformationData.getRenderState();
+    }
+
+    /**
+     * Takes the newest render states of the object and its cubes, which stay what {@link #getRenderState()} and
+     * {@link Cube#getRenderState()} return until the next call, and refreshes the world bounds of every cube and of
+     * the object as a whole from them. Versions only grow, so the newest cube version changes whenever any cube
+     * moves and the work is skipped while nothing has. Render thread only.
+     */
+    public BoundingVolume updateBounds()
+    {
+        TransformationState objectState = transformationData.acquireRenderState();
+        long objectVersion = objectState.getVersion();
+        long cubesVersion = 0;
+
+        for (int i = 0; i < cubicParts.size(); i++)
+        {
+            cubesVersion = Math.max(cubesVersion, cubicParts.get(i).acquireRenderState().getVersion());
+        }
+
+        if (objectVersion == boundsObjectVersion && cubesVersion == boundsCubesVersion)
+        {
+            return bounds;
+        }
+
+        bounds.setEmpty();
+
+        for (int i = 0; i < cubicParts.size(); i++)
+        {
+            Cube cube = cubicParts.get(i);
+            objectState.getMatrix().mulInto(cube.getRenderState().getMatrix(), boundsCubeMatrix);
+            bounds.include(cube.updateBounds(boundsCubeMatrix));
+        }
+
+        boundsObjectVersion = objectVersion;
+        boundsCubesVersion = cubesVersion;
+        return bounds;
+    }
+
+    public BoundingVolume getBounds()
+    {
+        return bounds;
+    }
+
     public void setRotationGoal(Vector3f goal)
     {
         transformationData.setGoal(goal);
@@ -92,6 +157,11 @@ public class GLObject
         return transformationData.getGoal();
     }
 
+    public boolean isRotated()
+    {
+        return transformationData.isRotated();
+    }
+
     public ArrayList<Cube> getCubicParts()
     {
         return cubicParts;
@@ -1,69 +1,88 @@
 package model;
 
-import model.shape.Cube;
 import util.Vector3f;
 
-import java.util.ArrayList;
-
 /**
  * Created by msi1 on 7/7/2018.
+ * <p>
+ * Particle emitter. The particles themselves live in the {@link ParticlePool} of a {@link ParticleMaster}, the
+ * emitter only decides how many to spawn per update and with which parameters.
  */
 public class Grass
 {
-    private ArrayList<Particle> particles;
+    private static final float DEFAULT_SPAWN_RATE = 50.0f;
+    private static final float DEFAULT_GRAVITY_EFFECT = 1.0f;
+    private static final float DEFAULT_LIFE_LENGTH = 1.0f;
+
     private Vector3f position;
     private Vector3f velocity;
+    private float spawnRate;
+    private float gravityEffect;
+    private float lifeLength;
+
+    // fraction of a particle carried over to the next update, so low rates still spawn on average
+    private float pendingSpawns;
 
     public Grass(Vector3f position, Vector3f velocity)
     {
-        this.particles = new ArrayList<>();
+        this(position, velocity, DEFAULT_SPAWN_RATE, DEFAULT_GRAVITY_EFFECT, DEFAULT_LIFE_LENGTH);
+    }
+
+    /**
+     * @param spawnRate  Particles spawned per second
+     * @param lifeLength Seconds a particle lives
+     */
+    public Grass(Vector3f position, Vector3f velocity, float spawnRate, float gravityEffect, float lifeLength)
+    {
         this.position = position;
         this.velocity = velocity;
+        this.spawnRate = spawnRate;
+        this.gravityEffect = gravityEffect;
+        this.lifeLength = lifeLength;
     }
 
-//    public void startParticleCreatingThread()
-//    {
-//        new Thread(new Runnable()
-//        {
-//            @Override
-//            public void run()
-//            {
-//                try
-//                {
-//                    particles.add(new Particle(position, velocity, 1, 4, 0, 1));
-//                    Thread.sleep(10);
-//                } catch (InterruptedException e)
-//                {
-//                    e.printStackTrace();
-//                }
-//            }
-//        }).start();
-//    }
-
-    public ArrayList<Cube> getCubes()
+    /**
+     * Spawns the particles due in the given time. Whatever does not fit into a full pool is dropped.
+     */
+    void emit(ParticlePool pool, float seconds)
     {
-        ArrayList<Cube> cubes = new ArrayList<>();
+        pendingSpawns += spawnRate * seconds;
 
-        for (Particle particle : particles)
+        while (pendingSpawns >= 1.0f)
         {
-            cubes.add(particle.getCube());
+            pendingSpawns -= 1.0f;
+
+            if (!pool.spawn(position.x, position.y, position.z, velocity.x, velocity.y, velocity.z, gravityEffect,
+                    lifeLength))
+            {
+                pendingSpawns = 0.0f;
+                return;
+            }
         }
+    }
 
-        return cubes;
+    public Vector3f getPosition()
+    {
+        return position;
     }
 
-    public void addParticle()
+    public Vector3f getVelocity()
     {
-        if (particles.size() >= 50)
-        {
-            return;
-        }
+        return velocity;
+    }
 
-        particles.add(new Particle(position, velocity, 1, 1, 0, 1));
+    public float getSpawnRate()
+    {
+        return spawnRate;
+    }
+
+    public float getGravityEffect()
+    {
+        return gravityEffect;
     }
 
-    public ArrayList<Particle> getParticles()
+    public float getLifeLength()
     {
-        return particles;
+        return lifeLength;
     }
 }
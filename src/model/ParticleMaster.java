@@ -1,56 +1,47 @@
 package model;
 
+import util.TripleBuffer;
+
 import java.util.ArrayList;
-import java.util.Iterator;
 
 /**
  * Created by msi1 on 7/7/2018.
+ * <p>
+ * Runs the particles of all {@link Grass} emitters in one shared {@link ParticlePool}. {@link #update(float)} is
+ * meant to be called from a fixed timestep simulation thread. After every update the positions are published
+ * through a triple buffer, so the render thread reads the newest complete set without locks.
  */
 public class ParticleMaster
 {
-    private ArrayList<Grass> grasses = new ArrayList<>();
+    private ArrayList<Grass> grasses;
+    private final ParticlePool pool;
+    private final TripleBuffer<ParticleSnapshot> snapshots;
 
-    public ParticleMaster(ArrayList<Grass> grasses)
+    public ParticleMaster(ArrayList<Grass> grasses, int capacity)
     {
         this.grasses = grasses;
-        startUpdatingThread();
+        this.pool = new ParticlePool(capacity);
+        this.snapshots = new TripleBuffer<>(() -> new ParticleSnapshot(capacity));
     }
 
-    private void startUpdatingThread()
+    public void update(float seconds)
     {
-        new Thread(new Runnable()
+        for (int i = 0; i < grasses.size(); i++)
         {
-            @Override
-            public void run()
-            {
-                update();
-                try
-                {
-                    Thread.sleep(20);
-                } catch (InterruptedException e)
-                {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
+            grasses.get(i).emit(pool, seconds);
+        }
+
+        pool.update(seconds);
+
+        snapshots.getBack().copyFrom(pool);
+        snapshots.publish();
     }
 
-    private void update()
+    /**
+     * Takes the positions of the newest update. Render thread only, once per frame.
+     */
+    public ParticleSnapshot acquireSnapshot()
     {
-        for (Grass grass : grasses)
-        {
-            ArrayList<Particle> particles = grass.getParticles();
-            Iterator<Particle> iterator = particles.iterator();
-
-            while (iterator.hasNext())
-            {
-                Particle p = iterator.next();
-                boolean stillAlive = p.update();
-                if (!stillAlive)
-                {
-                    iterator.remove();
-                }
-            }
-        }
+        return snapshots.acquire();
     }
 }
@@ -0,0 +1,207 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fixed size pool of particles stored as parallel primitive arrays. Live particles are packed at the front, a
+ * dead one is replaced by the last live one, so spawning and dying cost O(1) and nothing is allocated after
+ * construction.
+ * <p>
+ * Particles do not keep their own timers. The pool has one clock that advances with every update, each particle
+ * remembers when it was born and dies once its age on that clock reaches its lifetime. Large pools are integrated in
+ * chunks on the common fork/join pool. The chunk tasks are created once and reused.
+ */
+public class ParticlePool
+{
+    public static final float GRAVITY = 0.01f;
+    // below this many live particles the fork/join overhead costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 16_384;
+    private static final int CHUNK_SIZE = 8_192;
+
+    private final int capacity;
+    private final float[] positionX;
+    private final float[] positionY;
+    private final float[] positionZ;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] velocityZ;
+    private final float[] gravityEffects;
+    private final double[] birthTimes;
+    private final float[] lifetimes;
+    private int count;
+
+    // seconds since the pool was created. A double, a float clock stops resolving a 0.01 s tick after a few hours
+    private double time;
+
+    private final IntegrateChunk[] chunks;
+    private final IntegrateAll integrateAll = new IntegrateAll();
+    private float stepSeconds; // read by the chunk tasks
+
+    public ParticlePool(int capacity)
+    {
+        this.capacity = capacity;
+        this.positionX = new float[capacity];
+        this.positionY = new float[capacity];
+        this.positionZ = new float[capacity];
+        this.velocityX = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.velocityZ = new float[capacity];
+        this.gravityEffects = new float[capacity];
+        this.birthTimes = new double[capacity];
+        this.lifetimes = new float[capacity];
+
+        this.chunks = new IntegrateChunk[(capacity + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            chunks[i] = new IntegrateChunk();
+        }
+    }
+
+    /**
+     * @return false when the pool is full and no particle was spawned
+     */
+    public boolean spawn(float x, float y, float z, float vx, float vy, float vz, float gravityEffect, float lifetime)
+    {
+        if (count == capacity)
+        {
+            return false;
+        }
+
+        int i = count++;
+        positionX[i] = x;
+        positionY[i] = y;
+        positionZ[i] = z;
+        velocityX[i] = vx;
+        velocityY[i] = vy;
+        velocityZ[i] = vz;
+        gravityEffects[i] = gravityEffect;
+        birthTimes[i] = time;
+        lifetimes[i] = lifetime;
+        return true;
+    }
+
+    /**
+     * Advances the clock, moves every live particle and removes those that outlived their lifetime.
+     */
+    public void update(float seconds)
+    {
+        time += seconds;
+        stepSeconds = seconds;
+
+        if (count >= PARALLEL_THRESHOLD)
+        {
+            integrateAll.reinitialize();
+            ForkJoinPool.commonPool().invoke(integrateAll);
+        } else
+        {
+            integrate(0, count, seconds);
+        }
+
+        removeDead();
+    }
+
+    private void integrate(int start, int end, float seconds)
+    {
+        for (int i = start; i < end; i++)
+        {
+            velocityY[i] += GRAVITY * gravityEffects[i] * seconds;
+            positionX[i] += velocityX[i] * seconds;
+            positionY[i] += velocityY[i] * seconds;
+            positionZ[i] += velocityZ[i] * seconds;
+        }
+    }
+
+    private void removeDead()
+    {
+        int i = 0;
+
+        while (i < count)
+        {
+            if (time - birthTimes[i] < lifetimes[i])
+            {
+                i++;
+                continue;
+            }
+
+            int last = --count;
+            positionX[i] = positionX[last];
+            positionY[i] = positionY[last];
+            positionZ[i] = positionZ[last];
+            velocityX[i] = velocityX[last];
+            velocityY[i] = velocityY[last];
+            velocityZ[i] = velocityZ[last];
+            gravityEffects[i] = gravityEffects[last];
+            birthTimes[i] = birthTimes[last];
+            lifetimes[i] = lifetimes[last];
+        }
+    }
+
+    /**
+     * Writes the positions of the live particles as x, y, z triples.
+     *
+     * @param dst Room for at least three floats per live particle
+     *
+     * @return The number of particles written
+     */
+    public int copyPositions(float[] dst)
+    {
+        for (int i = 0, offset = 0; i < count; i++, offset += 3)
+        {
+            dst[offset] = positionX[i];
+            dst[offset + 1] = positionY[i];
+            dst[offset + 2] = positionZ[i];
+        }
+
+        return count;
+    }
+
+    public int size()
+    {
+        return count;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    // forks every chunk but the first, integrates that one itself and then waits for the rest
+    @SuppressWarnings("serial")
+    private final class IntegrateAll extends RecursiveAction
+    {
+        @Override
+        protected void compute()
+        {
+            int chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            for (int i = 1; i < chunkCount; i++)
+            {
+                chunks[i].reinitialize();
+                chunks[i].start = i * CHUNK_SIZE;
+                chunks[i].end = Math.min(count, (i + 1) * CHUNK_SIZE);
+                chunks[i].fork();
+            }
+
+            integrate(0, Math.min(count, CHUNK_SIZE), stepSeconds);
+
+            for (int i = chunkCount - 1; i >= 1; i--)
+            {
+                chunks[i].join();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class IntegrateChunk extends RecursiveAction
+    {
+        int start;
+        int end;
+
+        @Override
+        protected void compute()
+        {
+            integrate(start, end, stepSeconds);
+        }
+    }
+}
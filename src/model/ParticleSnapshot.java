@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * Positions of the live particles after one update, as x, y, z triples, handed to the render thread by
+ * {@link ParticleMaster}.
+ */
+public class ParticleSnapshot
+{
+    private final float[] positions;
+    private int count;
+
+    ParticleSnapshot(int capacity)
+    {
+        this.positions = new float[capacity * 3];
+    }
+
+    void copyFrom(ParticlePool pool)
+    {
+        count = pool.copyPositions(positions);
+    }
+
+    /**
+     * @return The positions, only the first {@link #getCount()} triples are valid
+     */
+    public float[] getPositions()
+    {
+        return positions;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+}
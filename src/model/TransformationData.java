@@ -1,13 +1,23 @@
 package model;
 
 import util.Matrix4f;
+import util.TripleBuffer;
 import util.Vector3f;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Created by msi1 on 7/6/2018.
+ * <p>
+ * Mutators and the synchronized getters share the object's lock. Every change also publishes a
+ * {@link TransformationState} through a triple buffer, which is what the render thread reads, so drawing never waits
+ * for an animation step or the simulation.
  */
 public class TransformationData
 {
+    // shared so that a version number never repeats, even across replaced TransformationData instances
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private Vector3f translation;
     private Vector3f rotation;
     private Vector3f goal;
@@ -15,6 +25,12 @@ public class TransformationData
     private Vector3f distance;
     private RotationAxisType rotationAxisType;
 
+    private final Matrix4f localMatrix = new Matrix4f();
+    private long version = VERSIONS.incrementAndGet();
+    private final TripleBuffer<TransformationState> renderStates;
+
+    boolean scheduled; // guarded by the AnimationScheduler lock
+
     public TransformationData(Vector3f pointOnAxis, RotationAxisType rotationAxisType)
     {
         this.translation = new Vector3f(0.0f, 0.0f, 0.0f);
@@ -23,7 +39,7 @@ public class TransformationData
         this.scale = 1.0f;
         this.rotationAxisType = rotationAxisType;
         calculateDistance(pointOnAxis);
-        startThread();
+        this.renderStates = createRenderStates();
     }
 
     public TransformationData()
@@ -33,40 +49,74 @@ public class TransformationData
         this.scale = 1.0f;
         this.distance = new Vector3f(0.0f, 0.0f, 0.0f);
         this.rotationAxisType = RotationAxisType.NULL;
+        this.renderStates = createRenderStates();
+    }
+
+    private TripleBuffer<TransformationState> createRenderStates()
+    {
+        calculateTransformationMatrix(localMatrix);
+        return new TripleBuffer<>(() -> new TransformationState().set(localMatrix, version, false));
+    }
+
+    // one fixed timestep of the animation, returns whether the goal is still ahead
+    synchronized boolean animate()
+    {
+        if (!isAnimating())
+        {
+            return false;
+        }
+
+        float xOffset = (goal.x - rotation.x)/100;
+        float yOffset = (goal.y - rotation.y)/100;
+        float zOffset = (goal.z - rotation.z)/100;
+        if (Math.max(Math.max(xOffset, yOffset), zOffset) < 8.0f/100.0f &&
+                Math.min(Math.min(xOffset, yOffset), zOffset) > -8.0f/100.f)
+        {
+            rotation.x = goal.x;
+            rotation.y = goal.y;
+            rotation.z = goal.z;
+        } else
+        {
+            rotation.x += xOffset;
+            rotation.y += yOffset;
+            rotation.z += zOffset;
+        }
+
+        markDirty();
+        return isAnimating();
+    }
+
+    synchronized boolean isAnimating()
+    {
+        return goal != null && (rotation.x != goal.x || rotation.y != goal.y || rotation.z != goal.z);
     }
 
-    public void startThread()
+    /**
+     * @return whether the rotation is anything other than the rest position, for example a door that is open or
+     * still swinging shut
+     */
+    public synchronized boolean isRotated()
     {
-        new Thread(() ->
+        return rotation.x != 0.0f || rotation.y != 0.0f || rotation.z != 0.0f;
+    }
+
+    // called outside of the synchronized mutators, see AnimationScheduler.register
+    private void scheduleIfAnimating()
+    {
+        if (isAnimating())
         {
-            while (true)
-            {
-                float xOffset = (goal.x - rotation.x)/100;
-                float yOffset = (goal.y - rotation.y)/100;
-                float zOffset = (goal.z - rotation.z)/100;
-                if (Math.max(Math.max(xOffset, yOffset), zOffset) < 8.0f/100.0f &&
-                        Math.min(Math.min(xOffset, yOffset), zOffset) > -8.0f/100.f)
-                {
-                    rotation.x = goal.x;
-                    rotation.y = goal.y;
-                    rotation.z = goal.z;
-                } else
-                {
-                    rotation.x += (goal.x - rotation.x)/100;
-                    rotation.y += (goal.y - rotation.y)/100;
-                    rotation.z += (goal.z - rotation.z)/100;
-                }
-
-
-                try
-                {
-                    Thread.sleep(10);
-                } catch (InterruptedException e)
-                {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
+            AnimationScheduler.getInstance().register(this);
+        }
+    }
+
+    // always called with the lock held, which also keeps the producer side of the triple buffer single threaded
+    private void markDirty()
+    {
+        version = VERSIONS.incrementAndGet();
+        calculateTransformationMatrix(localMatrix);
+
+        renderStates.getBack().set(localMatrix, version, isRotated());
+        renderStates.publish();
     }
 
     private void calculateDistance(Vector3f pointOnAxis)
@@ -87,43 +137,85 @@ public class TransformationData
 
     public Matrix4f getTransformationMatrix()
     {
-        Matrix4f scaleMatrix = Matrix4f.scale(scale, scale, scale);
-        Matrix4f translationMatrix = Matrix4f.translate(translation.x, translation.y, translation.z);
-        Matrix4f rotationMatrix = getRotationMatrix();
+        return getTransformationMatrix(new Matrix4f());
+    }
 
-        return translationMatrix.multiply(rotationMatrix.multiply(scaleMatrix));
+    // the local matrix is rebuilt by every change, see markDirty
+    public synchronized Matrix4f getTransformationMatrix(Matrix4f dst)
+    {
+        return dst.set(localMatrix);
     }
 
-    private Matrix4f getRotationMatrix()
+    /**
+     * Takes the newest published state without locking. Render thread only, call once per frame before
+     * {@link #getRenderState()}.
+     */
+    public TransformationState acquireRenderState()
     {
-        Matrix4f xRotMatrix = Matrix4f.rotate(rotation.x, 1.0f, 0.0f, 0.0f);
-        Matrix4f yRotMatrix = Matrix4f.rotate(rotation.y, 0.0f, 1.0f, 0.0f);
-        Matrix4f zRotMatrix = Matrix4f.rotate(rotation.z, 0.0f, 0.0f, 1.0f);
+        return renderStates.acquire();
+    }
 
-        Matrix4f translateToAxis = Matrix4f.translate(distance.x, distance.y, distance.z);
-        Matrix4f translateFromAxis = Matrix4f.translate(-distance.x, -distance.y, -distance.z);
+    /**
+     * @return The state taken by the render thread's last {@link #acquireRenderState()}
+     */
+    public TransformationState getRenderState()
+    {
+        return renderStates.getFront();
+    }
 
-        Matrix4f rotationMatrix = zRotMatrix.multiply(yRotMatrix.multiply(xRotMatrix));
-        rotationMatrix = translateFromAxis.multiply(rotationMatrix.multiply(translateToAxis));
+    // translation * (fromAxis * rotZ * rotY * rotX * toAxis) * scale, built in place
+    private void calculateTransformationMatrix(Matrix4f dst)
+    {
+        dst.setTranslation(translation.x, translation.y, translation.z);
+        dst.mulTranslation(-distance.x, -distance.y, -distance.z);
+        dst.mulRotation(rotation.z, 0.0f, 0.0f, 1.0f);
+        dst.mulRotation(rotation.y, 0.0f, 1.0f, 0.0f);
+        dst.mulRotation(rotation.x, 1.0f, 0.0f, 0.0f);
+        dst.mulTranslation(distance.x, distance.y, distance.z);
+        dst.mulScale(scale, scale, scale);
+    }
 
-        return rotationMatrix;
+    /**
+     * Changes every time the transformation matrix changes, so callers can compare
+     * it against a previously seen value instead of rebuilding derived matrices.
+     */
+    public synchronized long getVersion()
+    {
+        return version;
     }
 
-    public void translate(float dx, float dy, float dz)
+    public synchronized void translate(float dx, float dy, float dz)
     {
+        if (dx == 0.0f && dy == 0.0f && dz == 0.0f)
+        {
+            return;
+        }
+
         translation.x += dx;
         translation.y += dy;
         translation.z += dz;
+        markDirty();
     }
 
     public void rotate(float dx, float dy, float dz)
     {
-        rotation.x += dx;
-        rotation.y += dy;
-        rotation.z += dz;
+        if (dx == 0.0f && dy == 0.0f && dz == 0.0f)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            rotation.x += dx;
+            rotation.y += dy;
+            rotation.z += dz;
+            markDirty();
+        }
+
+        scheduleIfAnimating();
     }
 
-    public void setRotation(float angle)
+    public synchronized void setRotation(float angle)
     {
         switch (rotationAxisType)
         {
@@ -140,19 +232,32 @@ public class TransformationData
                 goal.z = angle;
                 break;
         }
+
+        markDirty();
     }
 
-    public void setScale(float scale)
+    public synchronized void setScale(float scale)
     {
+        if (this.scale == scale)
+        {
+            return;
+        }
+
         this.scale = scale;
+        markDirty();
     }
 
     public void setGoal(Vector3f goal)
     {
-        this.goal = goal;
+        synchronized (this)
+        {
+            this.goal = goal;
+        }
+
+        scheduleIfAnimating();
     }
 
-    public Vector3f getGoal()
+    public synchronized Vector3f getGoal()
     {
         return goal;
     }
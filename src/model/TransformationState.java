@@ -0,0 +1,44 @@
+package model;
+
+import util.Matrix4f;
+
+/**
+ * Copy of a {@link TransformationData} as the render thread sees it: the transformation matrix together with the
+ * version it was built from. Published through a triple buffer on every change, so the render thread reads it
+ * without taking the transformation's lock.
+ */
+public class TransformationState
+{
+    private final Matrix4f matrix = new Matrix4f();
+    private long version;
+    private boolean rotated;
+
+    TransformationState set(Matrix4f matrix, long version, boolean rotated)
+    {
+        this.matrix.set(matrix);
+        this.version = version;
+        this.rotated = rotated;
+        return this;
+    }
+
+    /**
+     * @return The transformation matrix, not to be modified
+     */
+    public Matrix4f getMatrix()
+    {
+        return matrix;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @see TransformationData#isRotated()
+     */
+    public boolean isRotated()
+    {
+        return rotated;
+    }
+}
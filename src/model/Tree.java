@@ -13,6 +13,16 @@ public class Tree
     private Cube body;
     private int maximumDepth;
 
+    // world = parent world * body, refreshed top-down by updateWorldMatrices
+    private final Matrix4f worldMatrix = new Matrix4f();
+    private long localVersion = -1;
+    private long parentWorldVersion = -1;
+    private long worldVersion = 0;
+
+    // bounds of this branch and everything below it, rebuilt by updateWorldMatrices when any of it moves
+    private final BoundingVolume bounds = new BoundingVolume();
+    private int cubeCount;
+
     public Tree(Tree parent, Cube body, int maximumDepth, int currentDepth)
     {
         this.children = new ArrayList<>();
@@ -20,6 +30,12 @@ public class Tree
         this.body = body;
         this.maximumDepth = maximumDepth;
         createChildren(maximumDepth, currentDepth);
+
+        cubeCount = 1;
+        for (Tree child : children)
+        {
+            cubeCount += child.cubeCount;
+        }
     }
 
     private void createChildren(int maximumDepth, int currentDepth)
@@ -68,6 +84,88 @@ public class Tree
         return transformationMatrix;
     }
 
+    /**
+     * Refreshes the cached world matrices of this tree and all of its descendants. A node is only
+     * recomputed, with a single multiply, when its own body or one of its ancestors has changed.
+     * The bounds of every branch that moved are rebuilt on the way back up.
+     * Call it on the root once per frame before reading {@link #getWorldMatrix()} or {@link #getBounds()}.
+     */
+    public void updateWorldMatrices()
+    {
+        update();
+    }
+
+    // returns whether anything in this branch moved
+    private boolean update()
+    {
+        boolean changed = updateWorldMatrix();
+
+        if (changed)
+        {
+            body.updateBounds(worldMatrix);
+        }
+
+        for (int i = 0; i < children.size(); i++)
+        {
+            changed |= children.get(i).update();
+        }
+
+        if (changed)
+        {
+            bounds.set(body.getBounds());
+
+            for (int i = 0; i < children.size(); i++)
+            {
+                bounds.include(children.get(i).bounds);
+            }
+        }
+
+        return changed;
+    }
+
+    private boolean updateWorldMatrix()
+    {
+        TransformationState bodyState = body.acquireRenderState();
+        long bodyVersion = bodyState.getVersion();
+        long parentVersion = parent == null ? 0 : parent.worldVersion;
+
+        if (bodyVersion == localVersion && parentVersion == parentWorldVersion)
+        {
+            return false;
+        }
+
+        if (parent == null)
+        {
+            worldMatrix.set(bodyState.getMatrix());
+        } else
+        {
+            parent.worldMatrix.mulInto(bodyState.getMatrix(), worldMatrix);
+        }
+
+        localVersion = bodyVersion;
+        parentWorldVersion = parentVersion;
+        worldVersion++;
+        return true;
+    }
+
+    public Matrix4f getWorldMatrix()
+    {
+        return worldMatrix;
+    }
+
+    public BoundingVolume getBounds()
+    {
+        return bounds;
+    }
+
+    /**
+     * @return The number of cubes in this branch, the body and all of its descendants
+     */
+    public int getCubeCount()
+    {
+        return cubeCount;
+    }
+
     public int getNumberOfTrees()
     {
         int result = 0;
@@ -106,6 +204,11 @@ public class Tree
         return cubes;
     }
 
+    public ArrayList<Tree> getChildren()
+    {
+        return children;
+    }
+
     public Cube getBody()
     {
         return body;
@@ -1,12 +1,14 @@
 package model.shape;
 
+import model.BoundingVolume;
 import model.TransformationData;
+import model.TransformationState;
 import model.Visibility;
 import texture.Texture;
+import texture.TextureCache;
 import util.Matrix4f;
 import util.Vector2f;
 import util.Vector3f;
-import util.Vector4f;
 
 import java.util.ArrayList;
 
@@ -15,6 +17,9 @@ import java.util.ArrayList;
  */
 public class Cube
 {
+    // 6 faces of 4 corners, the triangles come from DrawData's shared index list
+    public static final int VERTEX_COUNT = 24;
+
     private Texture texture;
     private Visibility visibility;
     private ArrayList<Vector3f> points;
@@ -28,6 +33,19 @@ public class Cube
     private float width;
     private float height;
     private float depth;
+    private boolean tiled;
+
+    //How long a single tile covers
+    private float tileWidth;
+    private float tileHeight;
+
+    // world bounds as of the last updateBounds call, render thread only
+    private final BoundingVolume bounds = new BoundingVolume();
+
+    // where the cube's vertices start in the scene's vertex buffer, -1 while it has none
+    private int firstVertex = -1;
+    // false once cleanUp gave the texture back, until acquireTexture takes it again
+    private boolean textureAcquired = true;
 
     public Cube(Vector3f center, float width, float height, float depth, Visibility visibility, String texturePath)
     {
@@ -37,7 +55,7 @@ public class Cube
         this.depth = depth;
         this.visibility = visibility;
 
-        this.texture = Texture.loadTexture(texturePath);
+        this.texture = TextureCache.acquire(texturePath);
         this.points = new ArrayList<>();
         this.normals = new ArrayList<>();
         this.textureCoordinates = new ArrayList<>();
@@ -61,15 +79,16 @@ public class Cube
         this.depth = depth;
         this.visibility = visibility;
 
-        this.texture = Texture.loadTexture(texturePath);
+        this.texture = TextureCache.acquire(texturePath);
         this.points = new ArrayList<>();
         this.normals = new ArrayList<>();
         this.textureCoordinates = new ArrayList<>();
         this.drawData = new DrawData();
         this.transformationData = new TransformationData();
 
-        this.texture.setX(x);
-        this.texture.setY(y);
+        this.tileWidth = x;
+        this.tileHeight = y;
+        this.tiled = true;
 
         addPoints();
         calculateNormals();
@@ -135,8 +154,6 @@ public class Cube
             normals.add(normal);
             normals.add(normal);
             normals.add(normal);
-            normals.add(normal);
-            normals.add(normal);
         }
     }
 
@@ -153,8 +170,8 @@ public class Cube
 
     private void addTiledTextureCoordinates()
     {
-        float texX = texture.getX();
-        float texY = texture.getY();
+        float texX = tileWidth;
+        float texY = tileHeight;
 
         //front
         textureCoordinates.add(new Vector2f(0.0f, 0.0f));
@@ -210,25 +227,25 @@ public class Cube
         return normal;
     }
 
-    public float getDistance(Vector3f point, Matrix4f objectTransformationMatrix)
+    /**
+     * @param worldTransformation The cube's full world transformation, including the one of its object or parent
+     */
+    public BoundingVolume updateBounds(Matrix4f worldTransformation)
     {
-        Vector4f minimums = objectTransformationMatrix.multiply(getTransformationMatrix().multiply(new Vector4f(minX, minY, minZ, 1.0f)));
-        Vector4f maximums = objectTransformationMatrix.multiply(getTransformationMatrix().multiply(new Vector4f(maxX, maxY, maxZ, 1.0f)));
-
-        float dx = Math.max(Math.max(minimums.x - point.x, 0.0f), point.x - maximums.x);
-        float dy = Math.max(Math.max(minimums.y - point.y, 0.0f), point.y - maximums.y);
-        float dz = Math.max(Math.max(minimums.z - point.z, 0.0f), point.z - maximums.z);
-
-        return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+        return getBounds(worldTransformation, bounds);
     }
 
-    public float getDistance(Vector3f point)
+    /**
+     * Computes world bounds without touching the cached ones, for use outside of the render thread.
+     */
+    public BoundingVolume getBounds(Matrix4f worldTransformation, BoundingVolume dst)
     {
-        float dx = Math.max(Math.max(minX - point.x, 0.0f), point.x - maxX);
-        float dy = Math.max(Math.max(minY - point.y, 0.0f), point.y - maxY);
-        float dz = Math.max(Math.max(minZ - point.z, 0.0f), point.z - maxZ);
+        return dst.setTransformed(worldTransformation, minX, minY, minZ, maxX, maxY, maxZ);
+    }
 
-        return (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+    public BoundingVolume getBounds()
+    {
+        return bounds;
     }
 
     public Matrix4f getTransformationMatrix()
@@ -236,10 +253,32 @@ public class Cube
         return transformationData.getTransformationMatrix();
     }
 
+    public Matrix4f getTransformationMatrix(Matrix4f dst)
+    {
+        return transformationData.getTransformationMatrix(dst);
+    }
+
+    public long getTransformationVersion()
+    {
+        return transformationData.getVersion();
+    }
+
+    /**
+     * @see TransformationData#acquireRenderState()
+     */
+    public TransformationState acquireRenderState()
+    {
+        return transformationData.acquireRenderState();
+    }
+
+    public TransformationState getRenderState()
+    {
+        return transformationData.getRenderState();
+    }
+
     public void setTransformationData(TransformationData transformationData)
     {
         this.transformationData = transformationData;
-        this.transformationData.startThread();
     }
 
 
@@ -264,6 +303,18 @@ public class Cube
         this.transformationData.setGoal(goal);
     }
 
+    /**
+     * Drops the CPU-side geometry once it has been uploaded. The bounds used by updateBounds and getBounds are kept,
+     * but getPoints, getNormals, getTextureCoordinates and the draw data return null afterwards.
+     */
+    public void releaseGeometry()
+    {
+        points = null;
+        normals = null;
+        textureCoordinates = null;
+        drawData.release();
+    }
+
     public ArrayList<Vector3f> getPoints()
     {
         return points;
@@ -284,11 +335,66 @@ public class Cube
         return drawData;
     }
 
+    public int getFirstVertex()
+    {
+        return firstVertex;
+    }
+
+    public void setFirstVertex(int firstVertex)
+    {
+        this.firstVertex = firstVertex;
+    }
+
     public Texture getTexture()
     {
         return texture;
     }
 
+    public float getTileWidth()
+    {
+        return tileWidth;
+    }
+
+    public float getTileHeight()
+    {
+        return tileHeight;
+    }
+
+    /**
+     * Takes a reference to the cube's texture again after {@link #cleanUp()}, e.g. when a despawned object is
+     * spawned again. Does nothing while the cube still holds its reference.
+     */
+    public void acquireTexture()
+    {
+        if (!textureAcquired)
+        {
+            texture = TextureCache.acquire(texture.getFileName());
+            textureAcquired = true;
+        }
+    }
+
+    /**
+     * Gives the cube's reference to its shared texture back to the {@link TextureCache}.
+     */
+    public void cleanUp()
+    {
+        if (textureAcquired)
+        {
+            TextureCache.release(texture);
+            textureAcquired = false;
+        }
+    }
+
+    public Visibility getVisibility()
+    {
+        return visibility;
+    }
+
+    public boolean isTiled()
+    {
+        return tiled;
+    }
+
     public Vector3f getCenter()
     {
         return center;
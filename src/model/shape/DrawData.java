@@ -10,38 +10,46 @@ import java.util.ArrayList;
  */
 public class DrawData
 {
-    private Float[] vertices;
-    private Float[] normals;
-    private Float[] colors; // TODO handle this later
-    private Float[] textureCoordinates;
+    // two triangles for each of the 6 faces
+    public static final int INDEX_COUNT = 36;
 
-    void setVertices(ArrayList<Vector3f> points)
+    private static final short[] CUBE_INDICES = new short[INDEX_COUNT];
+
+    static
     {
-        ArrayList<Float> verticesList = new ArrayList<>();
+        short[] faceIndices = {0, 1, 2, 1, 2, 3};
 
-        for (int i = 0; i < points.size(); i += 4)
+        for (int face = 0; face < 6; face++)
         {
-            addPointComponents(points, i, verticesList);
-            addPointComponents(points, i + 1, verticesList);
+            for (int i = 0; i < faceIndices.length; i++)
+            {
+                CUBE_INDICES[face * 6 + i] = (short) (face * 4 + faceIndices[i]);
+            }
         }
-
-        vertices = verticesList.toArray(new Float[verticesList.size()]);
     }
 
-    private void addPointComponents(ArrayList<Vector3f> allPoints, int startIndex, ArrayList<Float> verticesList)
+    private float[] vertices;
+    private float[] normals;
+    private float[] colors; // TODO handle this later
+    private float[] textureCoordinates;
+
+    // every face is given as 4 points and drawn as the triangles (0, 1, 2) and (1, 2, 3) of getCubeIndices
+    void setVertices(ArrayList<Vector3f> points)
     {
-        for (int i = 0; i < 3; i++)
+        vertices = new float[points.size() * 3];
+
+        for (int i = 0; i < points.size(); i++)
         {
-            Vector3f point = allPoints.get(startIndex + i);
-            verticesList.add(point.x);
-            verticesList.add(point.y);
-            verticesList.add(point.z);
+            Vector3f point = points.get(i);
+            vertices[i * 3] = point.x;
+            vertices[i * 3 + 1] = point.y;
+            vertices[i * 3 + 2] = point.z;
         }
     }
 
     void calculateNormals(ArrayList<Vector3f> normalsList)
     {
-        normals = new Float[normalsList.size() * 3];
+        normals = new float[normalsList.size() * 3];
         for (int i = 0; i < normalsList.size(); i++)
         {
             Vector3f normal = normalsList.get(i);
@@ -53,43 +61,52 @@ public class DrawData
 
     void setTextureCoordinates(ArrayList<Vector2f> allTextureCoordinates)
     {
-        ArrayList<Float> coordinatesList = new ArrayList<>();
+        textureCoordinates = new float[allTextureCoordinates.size() * 2];
 
-        for (int i = 0; i < allTextureCoordinates.size(); i += 4)
+        for (int i = 0; i < allTextureCoordinates.size(); i++)
         {
-            addTextureComponents(allTextureCoordinates, i, coordinatesList);
-            addTextureComponents(allTextureCoordinates, i + 1, coordinatesList);
+            Vector2f textureCoordinate = allTextureCoordinates.get(i);
+            textureCoordinates[i * 2] = textureCoordinate.x;
+            textureCoordinates[i * 2 + 1] = textureCoordinate.y;
         }
+    }
 
-        textureCoordinates = coordinatesList.toArray(new Float[coordinatesList.size()]);
+    /**
+     * Drops the arrays once they have been uploaded to the GPU.
+     */
+    void release()
+    {
+        vertices = null;
+        normals = null;
+        colors = null;
+        textureCoordinates = null;
     }
 
-    private void addTextureComponents(ArrayList<Vector2f> allCoordinates, int startIndex, ArrayList<Float> coordinatesList)
+    /**
+     * The index list shared by every cube: 24 vertices, 4 per face, drawn as 12 triangles. A fresh copy for
+     * every call.
+     */
+    public static short[] getCubeIndices()
     {
-        for (int i = 0; i < 3; i++)
-        {
-            Vector2f textureCoordinate = allCoordinates.get(startIndex + i);
-            coordinatesList.add(textureCoordinate.x);
-            coordinatesList.add(textureCoordinate.y);
-        }
+        return CUBE_INDICES.clone();
     }
 
-    public Float[] getVertices()
+    public float[] getVertices()
     {
         return vertices;
     }
 
-    public Float[] getNormals()
+    public float[] getNormals()
     {
         return normals;
     }
 
-    public Float[] getColors()
+    public float[] getColors()
     {
         return colors;
     }
 
-    public Float[] getTextureCoordinates()
+    public float[] getTextureCoordinates()
     {
         return textureCoordinates;
     }
@@ -0,0 +1,100 @@
+package model.shape;
+
+import util.Vector2f;
+import util.Vector3f;
+
+import java.util.ArrayList;
+
+/**
+ * The 24 vertices of a 1x1x1 cube centered on the origin, laid out exactly like {@link Cube} lays out its
+ * own geometry and drawn with the same {@link DrawData#getCubeIndices()}, so that every cube can be drawn as an
+ * instance of it. Texture coordinates come in two flavours: per-face 0..1 coordinates that are multiplied by the
+ * cube's tiling in the shader, and the six-strip layout used by untiled cubes.
+ */
+public final class UnitCube
+{
+    private static final DrawData TILED = new DrawData();
+    private static final DrawData STRIPS = new DrawData();
+
+    static
+    {
+        ArrayList<Vector3f> points = new ArrayList<>();
+        ArrayList<Vector3f> normals = new ArrayList<>();
+        ArrayList<Vector2f> tiledCoordinates = new ArrayList<>();
+        ArrayList<Vector2f> stripCoordinates = new ArrayList<>();
+
+        // front
+        addFace(points, normals, new Vector3f(0.0f, 0.0f, 1.0f),
+                -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f);
+        // back
+        addFace(points, normals, new Vector3f(0.0f, 0.0f, -1.0f),
+                -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, -0.5f);
+        // right
+        addFace(points, normals, new Vector3f(1.0f, 0.0f, 0.0f),
+                0.5f, 0.5f, 0.5f, 0.5f, 0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, -0.5f);
+        // left
+        addFace(points, normals, new Vector3f(-1.0f, 0.0f, 0.0f),
+                -0.5f, 0.5f, 0.5f, -0.5f, 0.5f, -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, -0.5f, -0.5f);
+        // top
+        addFace(points, normals, new Vector3f(0.0f, 1.0f, 0.0f),
+                -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f, 0.5f, 0.5f);
+        // bottom
+        addFace(points, normals, new Vector3f(0.0f, -1.0f, 0.0f),
+                -0.5f, -0.5f, -0.5f, 0.5f, -0.5f, -0.5f, -0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f);
+
+        for (int i = 1; i <= 6; i++)
+        {
+            tiledCoordinates.add(new Vector2f(0.0f, 0.0f));
+            tiledCoordinates.add(new Vector2f(1.0f, 0.0f));
+            tiledCoordinates.add(new Vector2f(0.0f, 1.0f));
+            tiledCoordinates.add(new Vector2f(1.0f, 1.0f));
+
+            stripCoordinates.add(new Vector2f(((float) i - 1.0f) * 1.0f / 6.0f, 0.0f));
+            stripCoordinates.add(new Vector2f((float) i * 1.0f / 6.0f, 0.0f));
+            stripCoordinates.add(new Vector2f(((float) i - 1.0f) * 1.0f / 6.0f, 1.0f));
+            stripCoordinates.add(new Vector2f((float) i * 1.0f / 6.0f, 1.0f));
+        }
+
+        TILED.setVertices(points);
+        TILED.calculateNormals(normals);
+        TILED.setTextureCoordinates(tiledCoordinates);
+        STRIPS.setTextureCoordinates(stripCoordinates);
+    }
+
+    private UnitCube()
+    {
+    }
+
+    private static void addFace(ArrayList<Vector3f> points, ArrayList<Vector3f> normals, Vector3f normal, float... corners)
+    {
+        for (int i = 0; i < corners.length; i += 3)
+        {
+            points.add(new Vector3f(corners[i], corners[i + 1], corners[i + 2]));
+        }
+
+        for (int i = 0; i < 4; i++)
+        {
+            normals.add(normal);
+        }
+    }
+
+    public static float[] getVertices()
+    {
+        return TILED.getVertices();
+    }
+
+    public static float[] getNormals()
+    {
+        return TILED.getNormals();
+    }
+
+    public static float[] getTiledTextureCoordinates()
+    {
+        return TILED.getTextureCoordinates();
+    }
+
+    public static float[] getStripTextureCoordinates()
+    {
+        return STRIPS.getTextureCoordinates();
+    }
+}
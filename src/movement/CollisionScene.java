@@ -0,0 +1,216 @@
+package movement;
+
+import model.BoundingVolume;
+import model.GLObject;
+import model.Tree;
+import model.shape.Cube;
+import spatial.AabbBatch;
+import spatial.AabbDistanceKernel;
+import spatial.AabbDistanceKernels;
+import spatial.BoundingVolumeHierarchy;
+import spatial.PrimitiveList;
+import spatial.SpatialHashGrid;
+import util.Matrix4f;
+import util.Vector3f;
+
+import java.util.ArrayList;
+
+/**
+ * World-space boxes of every cube the camera can run into. They are indexed twice under the same primitive ids.
+ * A {@link SpatialHashGrid} is the broadphase for the collision checks that run on every movement tick, because
+ * its cost only depends on what is near the camera. A {@link BoundingVolumeHierarchy} serves every other query.
+ * The boxes of animated objects are rebuilt by {@link #update()} whenever one of them has moved, which re-enters
+ * them into the grid cells they now cover and refits the hierarchy. Used from the movement thread only.
+ * <p>
+ * The boxes are also cached in an {@link AabbBatch}. The narrowphase copies the candidates of a query into a
+ * batch of their own and measures all of their distances to the camera in one call to the distance kernel.
+ */
+public class CollisionScene
+{
+    // a little larger than the camera's collision reach, so most queries stay within a couple of cells
+    private static final float GRID_CELL_SIZE = 0.2f;
+
+    private final BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy();
+    private final SpatialHashGrid grid = new SpatialHashGrid(GRID_CELL_SIZE);
+    private final AabbBatch worldBounds = new AabbBatch();
+
+    private final AabbDistanceKernel distanceKernel = AabbDistanceKernels.get();
+    private final AabbBatch candidateBounds = new AabbBatch();
+    private float[] candidateDistances = new float[16];
+
+    // per primitive id
+    private final ArrayList<Cube> cubes = new ArrayList<>();
+    private final ArrayList<Object> owners = new ArrayList<>();
+
+    private final ArrayList<GLObject> animatedObjects = new ArrayList<>();
+    private final ArrayList<Integer> animatedFirstPrimitives = new ArrayList<>();
+    private long[] animatedVersions = new long[0];
+
+    private final Matrix4f identity = new Matrix4f();
+    private final Matrix4f objectTransformation = new Matrix4f();
+    private final Matrix4f cubeTransformation = new Matrix4f();
+    private final BoundingVolume cubeBounds = new BoundingVolume();
+
+    /**
+     * @param animated Whether the object or any of its cubes can move after {@link #build()}
+     */
+    public void add(GLObject object, boolean animated)
+    {
+        if (animated)
+        {
+            animatedObjects.add(object);
+            animatedFirstPrimitives.add(cubes.size());
+        }
+
+        object.getTransformationMatrix(objectTransformation);
+
+        for (Cube cube : object.getCubicParts())
+        {
+            objectTransformation.mulInto(cube.getTransformationMatrix(cubeTransformation), cubeTransformation);
+            cube.getBounds(cubeTransformation, cubeBounds);
+            addPrimitive(cube, object);
+        }
+    }
+
+    /**
+     * Only the trunk of a tree is solid, the branches are out of the camera's reach.
+     */
+    public void add(Tree tree)
+    {
+        tree.getBody().getBounds(identity, cubeBounds);
+        addPrimitive(tree.getBody(), tree);
+    }
+
+    private void addPrimitive(Cube cube, Object owner)
+    {
+        hierarchy.add(cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+        grid.add(cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+        worldBounds.add(cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+        cubes.add(cube);
+        owners.add(owner);
+    }
+
+    public void build()
+    {
+        hierarchy.build();
+
+        animatedVersions = new long[animatedObjects.size()];
+        for (int i = 0; i < animatedObjects.size(); i++)
+        {
+            animatedVersions[i] = getVersion(animatedObjects.get(i));
+        }
+    }
+
+    /**
+     * Refreshes the boxes of the animated objects that moved since the last call.
+     */
+    public void update()
+    {
+        boolean moved = false;
+
+        for (int i = 0; i < animatedObjects.size(); i++)
+        {
+            GLObject object = animatedObjects.get(i);
+            long version = getVersion(object);
+
+            if (version == animatedVersions[i])
+            {
+                continue;
+            }
+
+            animatedVersions[i] = version;
+            object.getTransformationMatrix(objectTransformation);
+
+            int primitive = animatedFirstPrimitives.get(i);
+            for (Cube cube : object.getCubicParts())
+            {
+                objectTransformation.mulInto(cube.getTransformationMatrix(cubeTransformation), cubeTransformation);
+                cube.getBounds(cubeTransformation, cubeBounds);
+                hierarchy.setBounds(primitive, cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                        cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+                grid.setBounds(primitive, cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                        cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+                worldBounds.set(primitive, cubeBounds.getMinX(), cubeBounds.getMinY(), cubeBounds.getMinZ(),
+                        cubeBounds.getMaxX(), cubeBounds.getMaxY(), cubeBounds.getMaxZ());
+                primitive++;
+            }
+
+            moved = true;
+        }
+
+        if (moved)
+        {
+            hierarchy.refit();
+        }
+    }
+
+    // versions only grow, so the newest one of the object and its cubes changes whenever any of them moves
+    private static long getVersion(GLObject object)
+    {
+        long version = object.getTransformationVersion();
+
+        for (Cube cube : object.getCubicParts())
+        {
+            version = Math.max(version, cube.getTransformationVersion());
+        }
+
+        return version;
+    }
+
+    /**
+     * Broadphase for the camera: adds every primitive whose box overlaps the cube of the given reach around the
+     * point to the results, looking only at the grid cells that cube covers.
+     */
+    public void queryCollisionCandidates(Vector3f point, float reach, PrimitiveList results)
+    {
+        grid.queryOverlap(point.x - reach, point.y - reach, point.z - reach,
+                point.x + reach, point.y + reach, point.z + reach, results);
+    }
+
+    /**
+     * Adds every primitive whose box comes within the given distance of the point to the results.
+     */
+    public void queryNear(Vector3f point, float distance, PrimitiveList results)
+    {
+        hierarchy.queryOverlap(point.x - distance, point.y - distance, point.z - distance,
+                point.x + distance, point.y + distance, point.z + distance, results);
+    }
+
+    /**
+     * Narrowphase: measures the distance from the point to every candidate's box in one batch.
+     *
+     * @return The distance to candidate i at index i. The array is reused by the next call.
+     */
+    public float[] computeDistances(PrimitiveList candidates, Vector3f point)
+    {
+        candidateBounds.clear();
+        for (int i = 0; i < candidates.size(); i++)
+        {
+            candidateBounds.add(worldBounds, candidates.get(i));
+        }
+
+        if (candidateDistances.length < candidates.size())
+        {
+            candidateDistances = new float[candidates.size() * 2];
+        }
+
+        distanceKernel.computeDistances(candidateBounds, point.x, point.y, point.z, candidateDistances);
+        return candidateDistances;
+    }
+
+    public Cube getCube(int primitive)
+    {
+        return cubes.get(primitive);
+    }
+
+    /**
+     * @return The GLObject or Tree the primitive belongs to
+     */
+    public Object getOwner(int primitive)
+    {
+        return owners.get(primitive);
+    }
+}
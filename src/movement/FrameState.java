@@ -0,0 +1,83 @@
+package movement;
+
+import util.Vector3f;
+
+/**
+ * Everything the render thread needs from one simulation tick, handed over as a whole through a triple buffer. The
+ * camera is kept as it was after this tick and after the one before, so a frame can be drawn anywhere between them.
+ */
+public class FrameState
+{
+    private final Vector3f previousPosition = new Vector3f();
+    private final Vector3f previousFront = new Vector3f();
+    private final Vector3f position = new Vector3f();
+    private final Vector3f front = new Vector3f();
+    private long time;
+
+    private boolean doorSelected;
+    private boolean windowSelected;
+    private final Vector3f diffuseColor = new Vector3f();
+
+    void setCamera(Vector3f previousPosition, Vector3f previousFront, Vector3f position, Vector3f front, long time)
+    {
+        this.previousPosition.set(previousPosition);
+        this.previousFront.set(previousFront);
+        this.position.set(position);
+        this.front.set(front);
+        this.time = time;
+    }
+
+    void setSelection(boolean doorSelected, boolean windowSelected)
+    {
+        this.doorSelected = doorSelected;
+        this.windowSelected = windowSelected;
+    }
+
+    void setDiffuseColor(float level)
+    {
+        diffuseColor.set(level, level, level);
+    }
+
+    public Vector3f getPreviousPosition()
+    {
+        return previousPosition;
+    }
+
+    public Vector3f getPreviousFront()
+    {
+        return previousFront;
+    }
+
+    public Vector3f getPosition()
+    {
+        return position;
+    }
+
+    public Vector3f getFront()
+    {
+        return front;
+    }
+
+    /**
+     * @return When the tick was due, on the {@link System#nanoTime()} clock
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    public boolean isDoorSelected()
+    {
+        return doorSelected;
+    }
+
+    public boolean isWindowSelected()
+    {
+        return windowSelected;
+    }
+
+    public Vector3f getDiffuseColor()
+    {
+        return diffuseColor;
+    }
+}
@@ -0,0 +1,54 @@
+package movement;
+
+/**
+ * One input event as read back from an {@link InputQueue}. Reused for every event, so copy out what has to be kept.
+ */
+public class InputEvent
+{
+    public static final int KEY_PRESSED = 0;
+    public static final int KEY_RELEASED = 1;
+    public static final int CURSOR_MOVED = 2;
+
+    int type;
+    int key;
+    float x;
+    float y;
+    long time;
+
+    public int getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return The key of a key event
+     */
+    public int getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @return The horizontal movement of a cursor event
+     */
+    public float getX()
+    {
+        return x;
+    }
+
+    /**
+     * @return The vertical movement of a cursor event
+     */
+    public float getY()
+    {
+        return y;
+    }
+
+    /**
+     * @return When the event happened, on the {@link System#nanoTime()} clock
+     */
+    public long getTime()
+    {
+        return time;
+    }
+}
@@ -0,0 +1,176 @@
+package movement;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free ring buffer of timestamped input events from one producer, the thread that polls the window events, to
+ * one consumer, the simulation. Events are kept in parallel primitive arrays, so neither side allocates.
+ * <p>
+ * Each side owns one counter and only publishes it with an ordered write once the slot is written or read. Each side
+ * also caches the other side's counter and only reads it again when the ring looks full or empty.
+ * <p>
+ * No event is ever dropped, since a lost key release would leave the camera moving. When the ring is full, events
+ * wait in order in a backlog that only the producer touches, and move into the ring once the consumer has made room,
+ * with the next {@link #add} or {@link #flush()}. Cursor movements that follow each other in the backlog are merged
+ * into one by summing their deltas, which the consumer does with every tick's movements anyway, so a long stall
+ * only makes the backlog grow by the key events in it.
+ */
+public class InputQueue
+{
+    private final int mask;
+    private final int[] types;
+    private final int[] keys;
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] times;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to write, written by the producer
+    private long producerHead;                        // producer only
+    private long consumerTail;                        // consumer only
+
+    // events that did not fit into the ring, oldest at backlogStart, producer only
+    private int[] backlogTypes = new int[16];
+    private int[] backlogKeys = new int[16];
+    private float[] backlogXs = new float[16];
+    private float[] backlogYs = new float[16];
+    private long[] backlogTimes = new long[16];
+    private int backlogStart;
+    private int backlogEnd;
+
+    /**
+     * @param capacity Number of events the ring holds, rounded up to a power of two
+     */
+    public InputQueue(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+
+        this.mask = size - 1;
+        this.types = new int[size];
+        this.keys = new int[size];
+        this.xs = new float[size];
+        this.ys = new float[size];
+        this.times = new long[size];
+    }
+
+    /**
+     * Queues an event behind every event added before it. Producer only.
+     */
+    public void add(int type, int key, float x, float y, long time)
+    {
+        flush();
+
+        if (backlogStart == backlogEnd && offer(type, key, x, y, time))
+        {
+            return;
+        }
+
+        int last = backlogEnd - 1;
+        if (type == InputEvent.CURSOR_MOVED && backlogEnd > backlogStart && backlogTypes[last] == type)
+        {
+            backlogXs[last] += x;
+            backlogYs[last] += y;
+            backlogTimes[last] = time;
+            return;
+        }
+
+        if (backlogEnd == backlogTypes.length)
+        {
+            int length = backlogTypes.length * 2;
+            backlogTypes = Arrays.copyOf(backlogTypes, length);
+            backlogKeys = Arrays.copyOf(backlogKeys, length);
+            backlogXs = Arrays.copyOf(backlogXs, length);
+            backlogYs = Arrays.copyOf(backlogYs, length);
+            backlogTimes = Arrays.copyOf(backlogTimes, length);
+        }
+
+        backlogTypes[backlogEnd] = type;
+        backlogKeys[backlogEnd] = key;
+        backlogXs[backlogEnd] = x;
+        backlogYs[backlogEnd] = y;
+        backlogTimes[backlogEnd] = time;
+        backlogEnd++;
+    }
+
+    /**
+     * Moves as much of the backlog into the ring as fits. The producer should call this regularly, so events wait
+     * no longer than necessary when no new ones arrive. Producer only.
+     */
+    public void flush()
+    {
+        while (backlogStart < backlogEnd && offer(backlogTypes[backlogStart], backlogKeys[backlogStart],
+                backlogXs[backlogStart], backlogYs[backlogStart], backlogTimes[backlogStart]))
+        {
+            backlogStart++;
+        }
+
+        if (backlogStart == backlogEnd)
+        {
+            backlogStart = 0;
+            backlogEnd = 0;
+        }
+    }
+
+    // false when the ring is full
+    private boolean offer(int type, int key, float x, float y, long time)
+    {
+        long slot = tail.get();
+
+        if (slot - producerHead > mask)
+        {
+            producerHead = head.get();
+
+            if (slot - producerHead > mask)
+            {
+                return false;
+            }
+        }
+
+        int index = (int) slot & mask;
+        types[index] = type;
+        keys[index] = key;
+        xs[index] = x;
+        ys[index] = y;
+        times[index] = time;
+
+        tail.lazySet(slot + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest event, but only if it happened no later than the given time, so that an event is handled by
+     * the tick it happened in and not by whichever tick ran first after it. Consumer only.
+     *
+     * @return false when there is no such event
+     */
+    public boolean poll(long until, InputEvent dst)
+    {
+        long slot = head.get();
+
+        if (slot == consumerTail)
+        {
+            consumerTail = tail.get();
+
+            if (slot == consumerTail)
+            {
+                return false;
+            }
+        }
+
+        int index = (int) slot & mask;
+        if (times[index] > until)
+        {
+            return false;
+        }
+
+        dst.type = types[index];
+        dst.key = keys[index];
+        dst.x = xs[index];
+        dst.y = ys[index];
+        dst.time = times[index];
+
+        head.lazySet(slot + 1);
+        return true;
+    }
+}
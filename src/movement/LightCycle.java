@@ -0,0 +1,49 @@
+package movement;
+
+/**
+ * The light of the scene as a function of simulation time: five seconds of daylight, a short flicker and five
+ * seconds of darkness, over and over.
+ */
+public class LightCycle
+{
+    private static final long[] DURATIONS_MILLIS = {5000, 50, 50, 50, 50, 50, 50, 50, 5000};
+    private static final float[] LEVELS = {1.0f, 0.5f, 1.0f, 0.5f, 1.0f, 0.5f, 1.0f, 0.5f, 0.0f};
+
+    private final long startTime;
+    private final long cycleNanos;
+
+    /**
+     * @param startTime When the cycle begins, on the {@link System#nanoTime()} clock
+     */
+    public LightCycle(long startTime)
+    {
+        this.startTime = startTime;
+
+        long cycleMillis = 0;
+        for (long duration : DURATIONS_MILLIS)
+        {
+            cycleMillis += duration;
+        }
+        this.cycleNanos = cycleMillis * 1_000_000L;
+    }
+
+    /**
+     * @return The brightness of the diffuse light at the given time, between 0 and 1
+     */
+    public float getLevel(long time)
+    {
+        long elapsed = Math.floorMod(time - startTime, cycleNanos);
+
+        for (int i = 0; i < DURATIONS_MILLIS.length; i++)
+        {
+            elapsed -= DURATIONS_MILLIS[i] * 1_000_000L;
+
+            if (elapsed < 0)
+            {
+                return LEVELS[i];
+            }
+        }
+
+        return LEVELS[LEVELS.length - 1];
+    }
+}
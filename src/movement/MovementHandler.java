@@ -4,51 +4,120 @@ import camera.Camera;
 import model.GLObject;
 import model.Tree;
 import model.shape.Cube;
-import util.Matrix4f;
+import spatial.PrimitiveList;
+import util.TripleBuffer;
 import util.Vector3f;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 
 /**
  * Created by msi1 on 7/7/2018.
  */
 public class MovementHandler
 {
+    private static final List<String> ANIMATED_OBJECTS = Arrays.asList("Door", "Window", "Clock");
+    private static final float COLLISION_DISTANCE = 0.05f;
+    private static final float TABLE_COLLISION_DISTANCE = 0.14f;
+    private static final float TABLE_VERTICAL_COLLISION_DISTANCE = 0.5f;
+    private static final float SELECTION_DISTANCE = 0.25f;
+
     private Camera camera;
-    private HashMap<String, GLObject> objectMap;
+    private ConcurrentHashMap<String, GLObject> objectMap;
     private ArrayList<Tree> trees;
     private boolean doorSelected;
     private boolean windowSelected;
 
     private Time time;
+    private LightCycle lightCycle;
+    private LongConsumer inputProcessor = time -> {};
+
+    // written by the simulation thread after every tick, read by the render thread without locks
+    private final TripleBuffer<FrameState> frameStates = new TripleBuffer<>(FrameState::new);
+    private final Vector3f lastPosition = new Vector3f();
+    private final Vector3f lastFront = new Vector3f();
+
+    private final CollisionScene collisionScene = new CollisionScene();
+    private final PrimitiveList candidates = new PrimitiveList();
+    private final ArrayList<Object> collidingOwners = new ArrayList<>();
 
-    public MovementHandler(Camera camera, HashMap<String, GLObject> objectMap, ArrayList<Tree> trees)
+    public MovementHandler(Camera camera, ConcurrentHashMap<String, GLObject> objectMap, ArrayList<Tree> trees)
     {
         this.camera = camera;
         this.objectMap = objectMap;
         this.trees = trees;
         this.doorSelected = false;
         this.time = new Time();
+
+        long now = System.nanoTime();
+        this.lightCycle = new LightCycle(now);
+        this.lastPosition.set(camera.getPosition());
+        this.lastFront.set(camera.getFront());
+        publishFrameState(now);
+    }
+
+    /**
+     * @param inputProcessor Applies the input that happened up to the given time, run at the start of every tick.
+     *                       Must be set before {@link #startThread()}.
+     */
+    public void setInputProcessor(LongConsumer inputProcessor)
+    {
+        this.inputProcessor = inputProcessor;
     }
 
     public void startThread()
     {
-        new Thread(() ->
+        indexScene();
+
+        new SimulationLoop(this::tick).start();
+    }
+
+    // one fixed step of SimulationLoop.TICK_NANOS; the camera's speeds are tuned to that step
+    private void tick(long time)
+    {
+        inputProcessor.accept(time);
+        collisionScene.update();
+        camera.update(this);
+        updateClockBars();
+        publishFrameState(time);
+    }
+
+    private void publishFrameState(long time)
+    {
+        FrameState state = frameStates.getBack();
+        state.setCamera(lastPosition, lastFront, camera.getPosition(), camera.getFront(), time);
+        state.setSelection(doorSelected, windowSelected);
+        state.setDiffuseColor(lightCycle.getLevel(time));
+        frameStates.publish();
+
+        lastPosition.set(camera.getPosition());
+        lastFront.set(camera.getFront());
+    }
+
+    /**
+     * Takes the state of the newest simulation tick. Render thread only, once per frame.
+     */
+    public FrameState acquireFrameState()
+    {
+        return frameStates.acquire();
+    }
+
+    private void indexScene()
+    {
+        for (String name : objectMap.keySet())
         {
-            while (true)
-            {
-                camera.update(this);
-                updateClockBars();
-                try
-                {
-                    Thread.sleep(10);
-                } catch (InterruptedException e)
-                {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
+            collisionScene.add(objectMap.get(name), ANIMATED_OBJECTS.contains(name));
+        }
+
+        for (Tree tree : trees)
+        {
+            collisionScene.add(tree);
+        }
+
+        collisionScene.build();
     }
 
     private void updateClockBars()
@@ -63,94 +132,78 @@ public class MovementHandler
 
     public void handleCollisions(Vector3f speedVector)
     {
-        GLObject table = objectMap.get("Table");
+        int collisions = countCollisions(TABLE_COLLISION_DISTANCE, true);
 
-        for (GLObject object : objectMap.values())
+        for (int i = 0; i < collisions; i++)
         {
-            float collisionDistance = 0.05f;
-
-            if (object == table)
-            {
-                collisionDistance = 0.14f;
-            }
-
-            ArrayList<Cube> cubes = object.getCubicParts();
-
-            if (isCollision(cubes, object.getTransformationMatrix(), collisionDistance))
-            {
-                camera.setPosition(camera.getPosition().subtract(speedVector));
-            }
-        }
-
-        for (Tree tree : trees)
-        {
-            float collisionDistance = 0.05f;
-
-            if (isCollision(tree, collisionDistance))
-            {
-                camera.setPosition(camera.getPosition().subtract(speedVector));
-            }
+            camera.setPosition(camera.getPosition().subtract(speedVector));
         }
     }
 
-    private boolean isCollision(Tree tree, float collisionDistance)
+    public void handleCollisions(float ySpeed)
     {
-        float distance = tree.getBody().getDistance(camera.getPosition());
+        int collisions = countCollisions(TABLE_VERTICAL_COLLISION_DISTANCE, false);
 
-        return distance < collisionDistance && distance > -collisionDistance;
+        Vector3f position = camera.getPosition();
+        position.y -= ySpeed * collisions;
     }
 
-    public void handleCollisions(float ySpeed)
+    // how many objects, and trees when asked for, have a cube within their collision distance of the camera
+    private int countCollisions(float tableCollisionDistance, boolean includeTrees)
     {
+        Vector3f position = camera.getPosition();
         GLObject table = objectMap.get("Table");
 
-        for (GLObject object : objectMap.values())
-        {
-            float collisionDistance = 0.05f;
-
-            if (object == table)
-            {
-                collisionDistance = 0.5f;
-            }
+        candidates.clear();
+        collidingOwners.clear();
+        collisionScene.queryCollisionCandidates(position, Math.max(COLLISION_DISTANCE, tableCollisionDistance), candidates);
+        float[] distances = collisionScene.computeDistances(candidates, position);
 
-            ArrayList<Cube> cubes = object.getCubicParts();
+        for (int i = 0; i < candidates.size(); i++)
+        {
+            int primitive = candidates.get(i);
+            Object owner = collisionScene.getOwner(primitive);
 
-            if (isCollision(cubes, object.getTransformationMatrix(), collisionDistance))
+            if ((!includeTrees && owner instanceof Tree) || collidingOwners.contains(owner))
             {
-                Vector3f position = camera.getPosition();
-                position.y -= ySpeed;
+                continue;
             }
-        }
-    }
 
-    private boolean isCollision(ArrayList<Cube> cubes, Matrix4f transformationMatrix, float collisionDistance)
-    {
-        for (Cube cube : cubes)
-        {
-            float distance = cube.getDistance(camera.getPosition(), transformationMatrix);
+            float collisionDistance = owner == table ? tableCollisionDistance : COLLISION_DISTANCE;
 
-            if (distance < collisionDistance && distance > -collisionDistance)
+            if (distances[i] < collisionDistance)
             {
-                return true;
+                collidingOwners.add(owner);
             }
         }
 
-        return false;
+        return collidingOwners.size();
     }
 
     public void afterEffects()
     {
-        GLObject door = objectMap.get("Door");
-        Cube mainPart = door.getCubicParts().get(0);
-        float distance = mainPart.getDistance(camera.getPosition(), door.getTransformationMatrix());
+        Cube doorPart = objectMap.get("Door").getCubicParts().get(0);
+        Cube windowPart = objectMap.get("Window").getCubicParts().get(0);
+        Vector3f position = camera.getPosition();
+
+        doorSelected = false;
+        windowSelected = false;
 
-        doorSelected = distance < 0.25 && distance > -0.25;
+        candidates.clear();
+        collisionScene.queryNear(position, SELECTION_DISTANCE, candidates);
+        float[] distances = collisionScene.computeDistances(candidates, position);
 
-        GLObject window = objectMap.get("Window");
-        mainPart = window.getCubicParts().get(0);
-        distance = mainPart.getDistance(camera.getPosition(), window.getTransformationMatrix());
+        for (int i = 0; i < candidates.size(); i++)
+        {
+            int primitive = candidates.get(i);
+            Cube cube = collisionScene.getCube(primitive);
 
-        windowSelected = distance < 0.25 && distance > -0.25;
+            if ((cube == doorPart || cube == windowPart) && distances[i] < SELECTION_DISTANCE)
+            {
+                doorSelected |= cube == doorPart;
+                windowSelected |= cube == windowPart;
+            }
+        }
     }
 
     public void open()
@@ -179,14 +232,4 @@ public class MovementHandler
     {
         time.nextMinute(60 * amount);
     }
-
-    public boolean isDoorSelected()
-    {
-        return doorSelected;
-    }
-
-    public boolean isWindowSelected()
-    {
-        return windowSelected;
-    }
 }
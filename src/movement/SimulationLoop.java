@@ -0,0 +1,76 @@
+package movement;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Drives the simulation at a fixed timestep on its own thread, independent of how fast frames are drawn. Elapsed
+ * time on the monotonic clock is collected in an accumulator and paid out in whole ticks, so a late wake-up runs
+ * several ticks back to back instead of one longer one and movement does not depend on scheduler jitter.
+ * <p>
+ * Every tick gets the time it was due at, on the {@link System#nanoTime()} clock. The render thread uses these
+ * times to interpolate between the two newest simulation states.
+ */
+public class SimulationLoop
+{
+    public static final long TICK_NANOS = 10_000_000L;
+    public static final float TICK_SECONDS = TICK_NANOS / 1_000_000_000.0f;
+    // after a long stall, e.g. a breakpoint or the window being dragged, give up on the time instead of catching up
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    private final LongConsumer tick;
+    private final Thread thread;
+
+    /**
+     * @param tick Advances the simulation by one {@link #TICK_NANOS} step, given the time the tick was due at
+     */
+    public SimulationLoop(LongConsumer tick)
+    {
+        this.tick = tick;
+        this.thread = new Thread(this::run, "Simulation");
+        this.thread.setDaemon(true);
+    }
+
+    public void start()
+    {
+        thread.start();
+    }
+
+    private void run()
+    {
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
+
+        while (true)
+        {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previousTime, MAX_FRAME_NANOS);
+            previousTime = now;
+
+            while (accumulator >= TICK_NANOS)
+            {
+                accumulator -= TICK_NANOS;
+                tick.accept(now - accumulator);
+            }
+
+            long sleepNanos = TICK_NANOS - accumulator;
+            try
+            {
+                Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+            } catch (InterruptedException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return How far the given time lies past the tick of the newest state, as a fraction of a tick between 0
+     * and 1. Rendering the state this far between the previous and the newest one shows the simulation one tick
+     * late but without stutter.
+     */
+    public static float getInterpolationAlpha(long stateTime, long now)
+    {
+        float alpha = (float) (now - stateTime) / TICK_NANOS;
+        return Math.max(0.0f, Math.min(alpha, 1.0f));
+    }
+}
@@ -0,0 +1,63 @@
+package render;
+
+import model.BoundingVolume;
+
+import java.util.ArrayList;
+
+/**
+ * A region of the scene, such as the room or the outdoors, that can only see into other cells through
+ * {@link Portal}s. A cell without a region is the one the camera is in whenever no other cell contains it.
+ */
+public class Cell
+{
+    private final String name;
+    private final BoundingVolume region;
+    private final ArrayList<Portal> portals;
+
+    // screen rectangle through which the cell is seen this frame, as minimum x, minimum y, maximum x, maximum y
+    final float[] clipRect = new float[4];
+    boolean visible;
+
+    public Cell(String name, BoundingVolume region)
+    {
+        this.name = name;
+        this.region = region;
+        this.portals = new ArrayList<>();
+    }
+
+    public Cell(String name)
+    {
+        this(name, null);
+    }
+
+    void addPortal(Portal portal)
+    {
+        portals.add(portal);
+    }
+
+    public boolean contains(float x, float y, float z)
+    {
+        return region != null && x >= region.getMinX() && x <= region.getMaxX() && y >= region.getMinY()
+                && y <= region.getMaxY() && z >= region.getMinZ() && z <= region.getMaxZ();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public BoundingVolume getRegion()
+    {
+        return region;
+    }
+
+    public ArrayList<Portal> getPortals()
+    {
+        return portals;
+    }
+
+    public boolean isVisible()
+    {
+        return visible;
+    }
+}
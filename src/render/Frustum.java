@@ -0,0 +1,109 @@
+package render;
+
+import model.BoundingVolume;
+import util.Matrix4f;
+
+/**
+ * The six planes of the view frustum in world space, extracted from the projection-view matrix once per frame.
+ * Planes are stored as (a, b, c, d) with the normal pointing into the frustum and normalized, so a * x + b * y +
+ * c * z + d is the signed distance of a point from the plane.
+ */
+public class Frustum
+{
+    private static final int PLANES = 6;
+
+    private final float[] planes = new float[PLANES * 4];
+    private final float[] matrix = new float[16];
+
+    /**
+     * Rebuilds the planes from the rows of a projection-view matrix: left and right are row 4 plus or minus row 1,
+     * bottom and top use row 2 and near and far use row 3.
+     */
+    public void update(Matrix4f projectionViewMatrix)
+    {
+        projectionViewMatrix.toArray(matrix, 0);
+
+        for (int i = 0; i < PLANES; i++)
+        {
+            int row = i / 2;
+            float sign = i % 2 == 0 ? 1.0f : -1.0f;
+
+            // column-major, element (row, column) sits at column * 4 + row
+            float a = matrix[3] + sign * matrix[row];
+            float b = matrix[7] + sign * matrix[4 + row];
+            float c = matrix[11] + sign * matrix[8 + row];
+            float d = matrix[15] + sign * matrix[12 + row];
+            float length = (float) Math.sqrt(a * a + b * b + c * c);
+
+            planes[i * 4] = a / length;
+            planes[i * 4 + 1] = b / length;
+            planes[i * 4 + 2] = c / length;
+            planes[i * 4 + 3] = d / length;
+        }
+    }
+
+    /**
+     * Tests the bounding sphere first and only falls back to the box when the sphere straddles a plane.
+     *
+     * @return false only when the volume lies completely outside of one of the planes
+     */
+    public boolean intersects(BoundingVolume volume)
+    {
+        if (volume.isEmpty())
+        {
+            return false;
+        }
+
+        boolean straddling = false;
+
+        for (int i = 0; i < PLANES * 4; i += 4)
+        {
+            float distance = planes[i] * volume.getCenterX() + planes[i + 1] * volume.getCenterY()
+                    + planes[i + 2] * volume.getCenterZ() + planes[i + 3];
+
+            if (distance < -volume.getRadius())
+            {
+                return false;
+            }
+
+            if (distance < volume.getRadius())
+            {
+                straddling = true;
+            }
+        }
+
+        return !straddling || intersects(volume.getMinX(), volume.getMinY(), volume.getMinZ(),
+                volume.getMaxX(), volume.getMaxY(), volume.getMaxZ());
+    }
+
+    /**
+     * Box only test that checks the corner of the box lying furthest along each plane normal.
+     *
+     * @return false only when the box lies completely outside of one of the planes
+     */
+    public boolean intersects(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        for (int i = 0; i < PLANES * 4; i += 4)
+        {
+            float x = planes[i] > 0.0f ? maxX : minX;
+            float y = planes[i + 1] > 0.0f ? maxY : minY;
+            float z = planes[i + 2] > 0.0f ? maxZ : minZ;
+
+            if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < 0.0f)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The planes as (a, b, c, d) each, for code outside of the render package such as the spatial queries.
+     * Must not be modified.
+     */
+    public float[] getPlanes()
+    {
+        return planes;
+    }
+}
@@ -0,0 +1,200 @@
+package render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import java.util.Arrays;
+
+/**
+ * Mirror of the bits of GL state the renderers change every frame: the current program, the bound vertex array,
+ * the enabled attributes of each vertex array and the 2D texture bound to each texture unit. Calls that would set
+ * a value that is already current are skipped.
+ *
+ * Everything here must be called from the thread that owns the GL context, and every change to the tracked state
+ * has to go through this class, otherwise the mirror no longer matches the driver.
+ *
+ * Issued and skipped calls are counted, including the uniform uploads skipped by the shader programs, and reset
+ * with {@link #resetCounters()} once per frame.
+ */
+public class GLState
+{
+    private static final int TEXTURE_UNITS = 16;
+
+    private static int program = 0;
+    private static int vertexArray = 0;
+    private static int activeTextureUnit = 0;
+    private static final int[] textures = new int[TEXTURE_UNITS];
+    // enabled attribute bits, indexed by vertex array id since that state belongs to the vertex array
+    private static int[] enabledAttributes = new int[16];
+
+    private static int issuedCalls;
+    private static int skippedCalls;
+
+    public static void useProgram(int programId)
+    {
+        if (program == programId)
+        {
+            skippedCalls++;
+            return;
+        }
+
+        GL20.glUseProgram(programId);
+        program = programId;
+        issuedCalls++;
+    }
+
+    public static void bindVertexArray(int vaoId)
+    {
+        if (vertexArray == vaoId)
+        {
+            skippedCalls++;
+            return;
+        }
+
+        GL30.glBindVertexArray(vaoId);
+        vertexArray = vaoId;
+        issuedCalls++;
+    }
+
+    /**
+     * Enables an attribute of the currently bound vertex array.
+     */
+    public static void enableVertexAttribArray(int index)
+    {
+        int bit = 1 << index;
+        int attributes = getEnabledAttributes(vertexArray);
+
+        if ((attributes & bit) != 0)
+        {
+            skippedCalls++;
+            return;
+        }
+
+        GL20.glEnableVertexAttribArray(index);
+        enabledAttributes[vertexArray] = attributes | bit;
+        issuedCalls++;
+    }
+
+    /**
+     * Disables an attribute of the currently bound vertex array.
+     */
+    public static void disableVertexAttribArray(int index)
+    {
+        int bit = 1 << index;
+        int attributes = getEnabledAttributes(vertexArray);
+
+        if ((attributes & bit) == 0)
+        {
+            skippedCalls++;
+            return;
+        }
+
+        GL20.glDisableVertexAttribArray(index);
+        enabledAttributes[vertexArray] = attributes & ~bit;
+        issuedCalls++;
+    }
+
+    public static void activeTexture(int unit)
+    {
+        if (activeTextureUnit == unit)
+        {
+            skippedCalls++;
+            return;
+        }
+
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+        issuedCalls++;
+    }
+
+    /**
+     * Binds a 2D texture to the active texture unit.
+     *
+     * @return whether a glBindTexture call was actually issued
+     */
+    public static boolean bindTexture2D(int textureId)
+    {
+        if (textures[activeTextureUnit] == textureId)
+        {
+            skippedCalls++;
+            return false;
+        }
+
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        textures[activeTextureUnit] = textureId;
+        issuedCalls++;
+        return true;
+    }
+
+    /**
+     * Forgets everything known about a vertex array that is about to be deleted, its id may be handed out again.
+     */
+    public static void deleteVertexArray(int vaoId)
+    {
+        if (vertexArray == vaoId)
+        {
+            vertexArray = 0;
+        }
+
+        if (vaoId < enabledAttributes.length)
+        {
+            enabledAttributes[vaoId] = 0;
+        }
+
+        GL30.glDeleteVertexArrays(vaoId);
+    }
+
+    /**
+     * Forgets a texture that is about to be deleted, its id may be handed out again.
+     */
+    public static void deleteTexture(int textureId)
+    {
+        for (int i = 0; i < TEXTURE_UNITS; i++)
+        {
+            if (textures[i] == textureId)
+            {
+                textures[i] = 0;
+            }
+        }
+
+        GL11.glDeleteTextures(textureId);
+    }
+
+    private static int getEnabledAttributes(int vaoId)
+    {
+        if (vaoId >= enabledAttributes.length)
+        {
+            enabledAttributes = Arrays.copyOf(enabledAttributes, Math.max(vaoId + 1, enabledAttributes.length * 2));
+        }
+
+        return enabledAttributes[vaoId];
+    }
+
+    public static void countIssued()
+    {
+        issuedCalls++;
+    }
+
+    public static void countSkipped()
+    {
+        skippedCalls++;
+    }
+
+    public static void resetCounters()
+    {
+        issuedCalls = 0;
+        skippedCalls = 0;
+    }
+
+    public static int getIssuedCalls()
+    {
+        return issuedCalls;
+    }
+
+    public static int getSkippedCalls()
+    {
+        return skippedCalls;
+    }
+}
@@ -0,0 +1,243 @@
+package render;
+
+import model.Grass;
+import model.ParticlePool;
+import movement.SimulationLoop;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import shader.ParticleShader;
+import shader.ParticleUpdateShader;
+import texture.Texture;
+import texture.TextureCache;
+import util.Vector3f;
+
+import java.io.FileNotFoundException;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+/**
+ * Simulates and draws the particles of the {@link Grass} emitters entirely on the GPU. The particles live in two
+ * buffers used in turn: a transform feedback pass reads one, advances every particle by a fixed timestep and writes
+ * the other. The same buffer is then read as per-instance data by an instanced camera facing quad, so particles
+ * never travel over the bus after they have been seeded.
+ * <p>
+ * Every emitter owns a fixed range of particles, enough for its spawn rate times its life length. A particle that
+ * reaches the end of its life starts over at its emitter, and the initial ages are staggered, so the emitter spawns
+ * at its rate. The CPU only sends emitter parameters as uniforms, and only when they change.
+ */
+public class GpuParticleRenderer
+{
+    // position, velocity, age, emitter index
+    private static final int PARTICLE_FLOATS = 8;
+    private static final int PARTICLE_BYTES = PARTICLE_FLOATS * 4;
+    private static final float PARTICLE_SIZE = 0.1f;
+    // a frame that falls far behind drops the rest of the steps instead of stalling the next one
+    private static final int MAX_STEPS_PER_FRAME = 5;
+
+    private final ArrayList<Grass> grasses;
+    private final ParticleUpdateShader updateShader;
+    private final ParticleShader shader;
+    private final Texture texture;
+    private final int particleCount;
+
+    private final int[] particleVbos = new int[2];
+    private final int[] updateVaos = new int[2];
+    private final int[] drawVaos = new int[2];
+    private int quadVbo;
+    private int source; // which of the two buffers holds the current particles
+
+    private long lastUpdateTime = -1;
+    private long accumulator;
+
+    public GpuParticleRenderer(ArrayList<Grass> grasses, String texturePath) throws FileNotFoundException
+    {
+        if (grasses.size() > ParticleUpdateShader.MAX_EMITTERS)
+        {
+            throw new IllegalArgumentException("At most " + ParticleUpdateShader.MAX_EMITTERS + " emitters");
+        }
+
+        this.grasses = grasses;
+        this.updateShader = new ParticleUpdateShader("ParticleUpdateShader.vert");
+        this.shader = new ParticleShader("ParticleVertexShader.vert", "ParticleFragmentShader.frag");
+        this.texture = TextureCache.acquire(texturePath);
+
+        FloatBuffer particles = createParticles();
+        this.particleCount = particles.remaining() / PARTICLE_FLOATS;
+
+        createBuffers(particles);
+    }
+
+    private static int getSlots(Grass grass)
+    {
+        return Math.max(1, (int) Math.ceil(grass.getSpawnRate() * grass.getLifeLength()));
+    }
+
+    // particles wait at their emitter with a negative age until it is their turn to be born
+    private FloatBuffer createParticles()
+    {
+        int count = 0;
+        for (Grass grass : grasses)
+        {
+            count += getSlots(grass);
+        }
+
+        FloatBuffer particles = BufferUtils.createFloatBuffer(count * PARTICLE_FLOATS);
+
+        for (int emitter = 0; emitter < grasses.size(); emitter++)
+        {
+            Grass grass = grasses.get(emitter);
+            Vector3f position = grass.getPosition();
+            Vector3f velocity = grass.getVelocity();
+
+            for (int i = 0; i < getSlots(grass); i++)
+            {
+                particles.put(position.x).put(position.y).put(position.z);
+                particles.put(velocity.x).put(velocity.y).put(velocity.z);
+                particles.put(-i / grass.getSpawnRate());
+                particles.put(emitter);
+            }
+        }
+
+        particles.flip();
+        return particles;
+    }
+
+    private void createBuffers(FloatBuffer particles)
+    {
+        quadVbo = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, quadVbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, new float[] {-0.5f, -0.5f, 0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f},
+                GL15.GL_STATIC_DRAW);
+
+        for (int i = 0; i < 2; i++)
+        {
+            particleVbos[i] = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, particleVbos[i]);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, particles, GL15.GL_DYNAMIC_COPY);
+        }
+
+        for (int i = 0; i < 2; i++)
+        {
+            updateVaos[i] = GL30.glGenVertexArrays();
+            GLState.bindVertexArray(updateVaos[i]);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, particleVbos[i]);
+            setParticleAttribute(0, 3, 0);
+            setParticleAttribute(1, 3, 12);
+            setParticleAttribute(2, 1, 24);
+            setParticleAttribute(3, 1, 28);
+
+            drawVaos[i] = GL30.glGenVertexArrays();
+            GLState.bindVertexArray(drawVaos[i]);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, quadVbo);
+            GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 8, 0);
+            GLState.enableVertexAttribArray(0);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, particleVbos[i]);
+            setParticleAttribute(1, 3, 0);
+            setParticleAttribute(2, 1, 24);
+            GL33.glVertexAttribDivisor(1, 1);
+            GL33.glVertexAttribDivisor(2, 1);
+        }
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+    }
+
+    private void setParticleAttribute(int index, int size, long byteOffset)
+    {
+        GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, PARTICLE_BYTES, byteOffset);
+        GLState.enableVertexAttribArray(index);
+    }
+
+    /**
+     * Runs as many fixed simulation steps as the time since the last call holds, at most
+     * {@link #MAX_STEPS_PER_FRAME}.
+     *
+     * @param now The frame's time on the {@link System#nanoTime()} clock
+     */
+    public void update(long now)
+    {
+        if (lastUpdateTime < 0)
+        {
+            lastUpdateTime = now;
+        }
+
+        accumulator += now - lastUpdateTime;
+        lastUpdateTime = now;
+
+        int steps = (int) Math.min(accumulator / SimulationLoop.TICK_NANOS, MAX_STEPS_PER_FRAME);
+        accumulator = steps == MAX_STEPS_PER_FRAME ? 0 : accumulator - steps * SimulationLoop.TICK_NANOS;
+
+        if (steps == 0)
+        {
+            return;
+        }
+
+        updateShader.start();
+        for (int i = 0; i < grasses.size(); i++)
+        {
+            Grass grass = grasses.get(i);
+            updateShader.loadEmitter(i, grass.getPosition(), grass.getVelocity(), grass.getGravityEffect(),
+                    grass.getLifeLength());
+        }
+        updateShader.loadDeltaTime(SimulationLoop.TICK_SECONDS);
+        updateShader.loadGravity(ParticlePool.GRAVITY);
+
+        GL11.glEnable(GL30.GL_RASTERIZER_DISCARD);
+        for (int i = 0; i < steps; i++)
+        {
+            step();
+        }
+        GL11.glDisable(GL30.GL_RASTERIZER_DISCARD);
+    }
+
+    private void step()
+    {
+        int target = 1 - source;
+
+        GLState.bindVertexArray(updateVaos[source]);
+        GL30.glBindBufferBase(GL30.GL_TRANSFORM_FEEDBACK_BUFFER, 0, particleVbos[target]);
+        GL30.glBeginTransformFeedback(GL11.GL_POINTS);
+        GL11.glDrawArrays(GL11.GL_POINTS, 0, particleCount);
+        GL30.glEndTransformFeedback();
+        GL30.glBindBufferBase(GL30.GL_TRANSFORM_FEEDBACK_BUFFER, 0, 0);
+
+        source = target;
+    }
+
+    public void render(Vector3f diffuseColor)
+    {
+        shader.start();
+        shader.loadParticleSize(PARTICLE_SIZE);
+        shader.loadDiffuseColor(diffuseColor);
+
+        GLState.bindVertexArray(drawVaos[source]);
+        GLState.activeTexture(0);
+        texture.bind();
+        GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, particleCount);
+    }
+
+    public int getParticleCount()
+    {
+        return particleCount;
+    }
+
+    public void cleanUp()
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            GLState.deleteVertexArray(updateVaos[i]);
+            GLState.deleteVertexArray(drawVaos[i]);
+            GL15.glDeleteBuffers(particleVbos[i]);
+        }
+
+        GL15.glDeleteBuffers(quadVbo);
+        TextureCache.release(texture);
+        updateShader.cleanUp();
+        shader.cleanUp();
+    }
+}
@@ -0,0 +1,219 @@
+package render;
+
+import model.Visibility;
+import model.shape.Cube;
+import model.shape.DrawData;
+import model.shape.UnitCube;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import shader.InstancedShader;
+import texture.Texture;
+import util.Matrix4f;
+import util.Vector3f;
+
+import java.io.FileNotFoundException;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+/**
+ * Draws every cube as an instance of {@link UnitCube}, taking the cubes of a frame from a sorted
+ * {@link RenderQueue}.
+ */
+public class InstancedRenderer
+{
+    // mat4 model matrix, vec4 tiling, vec4 (strip flag, normal sign, selection effect, alpha)
+    private static final int INSTANCE_FLOATS = 24;
+    private static final int INSTANCE_BYTES = INSTANCE_FLOATS * 4;
+    private static final int FIRST_INSTANCE_ATTRIBUTE = 4;
+
+    private InstancedShader shader;
+    private int vaoId;
+    private ArrayList<Integer> vbos;
+    private StreamingBuffer instances;
+    private FloatBuffer instanceBuffer;
+
+    private final float[] instanceData = new float[INSTANCE_FLOATS];
+    private final Matrix4f modelMatrix = new Matrix4f();
+
+    public InstancedRenderer(String vertexShader, String fragmentShader) throws FileNotFoundException
+    {
+        this.shader = new InstancedShader(vertexShader, fragmentShader);
+        this.vbos = new ArrayList<>();
+        this.instances = new StreamingBuffer(GL15.GL_ARRAY_BUFFER, INSTANCE_BYTES * 1024L);
+        createVao();
+    }
+
+    private void createVao()
+    {
+        vaoId = GL30.glGenVertexArrays();
+        GLState.bindVertexArray(vaoId);
+
+        addMeshAttribute(UnitCube.getVertices(), 0, 3);
+        addMeshAttribute(UnitCube.getTiledTextureCoordinates(), 1, 2);
+        addMeshAttribute(UnitCube.getNormals(), 2, 3);
+        addMeshAttribute(UnitCube.getStripTextureCoordinates(), 3, 2);
+
+        int eboId = GL15.glGenBuffers();
+        vbos.add(eboId);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, eboId);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, DrawData.getCubeIndices(), GL15.GL_STATIC_DRAW);
+
+        // the instance attributes are pointed into the streaming buffer per draw run
+        for (int i = 0; i < 6; i++)
+        {
+            GLState.enableVertexAttribArray(FIRST_INSTANCE_ATTRIBUTE + i);
+            GL33.glVertexAttribDivisor(FIRST_INSTANCE_ATTRIBUTE + i, 1);
+        }
+
+        GLState.bindVertexArray(0);
+    }
+
+    private void addMeshAttribute(float[] values, int index, int size)
+    {
+        FloatBuffer buffer = BufferUtils.createFloatBuffer(values.length);
+        buffer.put(values);
+        buffer.flip();
+
+        int vboId = GL15.glGenBuffers();
+        vbos.add(vboId);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        GL20.glVertexAttribPointer(index, size, GL11.GL_FLOAT, false, 4 * size, 0);
+        GLState.enableVertexAttribArray(index);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Draws every entry of a sorted queue. Consecutive entries of the same pass and texture become one
+     * glDrawElementsInstanced call, so opaque cubes are drawn with one call per texture and translucent ones keep
+     * their back to front order.
+     */
+    public void render(RenderQueue queue, Vector3f diffuseColor)
+    {
+        int instanceCount = queue.size();
+
+        if (instanceCount == 0)
+        {
+            return;
+        }
+
+        uploadInstances(queue);
+
+        shader.start();
+        shader.loadDiffuseColor(diffuseColor);
+
+        GLState.bindVertexArray(vaoId);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instances.getId());
+        GLState.activeTexture(0);
+
+        int runStart = 0;
+        Texture runTexture = queue.getCube(queue.getEntry(0)).getTexture();
+        int runPass = queue.getPass(0);
+
+        for (int i = 1; i <= instanceCount; i++)
+        {
+            Texture texture = null;
+            int pass = -1;
+
+            if (i < instanceCount)
+            {
+                texture = queue.getCube(queue.getEntry(i)).getTexture();
+                pass = queue.getPass(i);
+
+                if (texture == runTexture && pass == runPass)
+                {
+                    continue;
+                }
+            }
+
+            drawRun(queue, runTexture, runStart, i - runStart);
+            runStart = i;
+            runTexture = texture;
+            runPass = pass;
+        }
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    // writes the frame's instances into its region of the streaming buffer, no buffer is allocated per frame
+    private void uploadInstances(RenderQueue queue)
+    {
+        instanceBuffer = instances.map(queue.size() * INSTANCE_FLOATS);
+        for (int i = 0; i < queue.size(); i++)
+        {
+            putInstance(queue, queue.getEntry(i));
+        }
+        instances.unmap();
+    }
+
+    // turns the cube's transformation into the unit cube's model matrix and writes the whole instance
+    private void putInstance(RenderQueue queue, int entry)
+    {
+        Cube cube = queue.getCube(entry);
+        Vector3f center = cube.getCenter();
+        queue.getTransformation(entry, modelMatrix)
+                .mulTranslation(center.x, center.y, center.z)
+                .mulScale(cube.getWidth(), cube.getHeight(), cube.getDepth());
+
+        modelMatrix.toArray(instanceData, 0);
+
+        if (cube.isTiled())
+        {
+            instanceData[16] = cube.getWidth() / cube.getTileWidth();
+            instanceData[17] = cube.getHeight() / cube.getTileHeight();
+            instanceData[18] = cube.getDepth() / cube.getTileWidth();
+            instanceData[19] = cube.getDepth() / cube.getTileHeight();
+            instanceData[20] = 0.0f;
+        } else
+        {
+            instanceData[16] = 1.0f;
+            instanceData[17] = 1.0f;
+            instanceData[18] = 1.0f;
+            instanceData[19] = 1.0f;
+            instanceData[20] = 1.0f;
+        }
+
+        instanceData[21] = cube.getVisibility() == Visibility.VisibleInside ? -1.0f : 1.0f;
+        instanceData[22] = queue.getSelectionEffect(entry);
+        instanceData[23] = queue.getAlpha(entry);
+
+        instanceBuffer.put(instanceData);
+    }
+
+    private void drawRun(RenderQueue queue, Texture texture, int firstInstance, int count)
+    {
+        setInstanceAttributes(instances.getOffset() + (long) firstInstance * INSTANCE_BYTES);
+        if (GLState.bindTexture2D(texture.getId()))
+        {
+            queue.countTextureBind();
+        }
+        GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, DrawData.INDEX_COUNT, GL11.GL_UNSIGNED_SHORT, 0, count);
+        queue.countDrawCall();
+    }
+
+    // points the per-instance attributes at the first instance of a run inside the shared instance buffer
+    private void setInstanceAttributes(long byteOffset)
+    {
+        for (int i = 0; i < 6; i++)
+        {
+            GL20.glVertexAttribPointer(FIRST_INSTANCE_ATTRIBUTE + i, 4, GL11.GL_FLOAT, false, INSTANCE_BYTES, byteOffset + i * 16L);
+        }
+    }
+
+    public void cleanUp()
+    {
+        for (int vboId : vbos)
+        {
+            GL15.glDeleteBuffers(vboId);
+        }
+
+        instances.cleanUp();
+        GLState.deleteVertexArray(vaoId);
+        shader.cleanUp();
+    }
+}
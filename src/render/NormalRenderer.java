@@ -1,19 +1,14 @@
 package render;
 
-import camera.Camera;
-import model.GLObject;
-import model.Tree;
 import model.shape.Cube;
+import model.shape.DrawData;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 import shader.StaticShader;
 import util.Matrix4f;
 import util.Vector3f;
 
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
 
 /**
  * Created by msi1 on 7/6/2018.
@@ -23,123 +18,59 @@ public class NormalRenderer
     private StaticShader shader;
     private int vaoId;
 
+    // scratch matrix reused for every draw so that rendering does not allocate
+    private final Matrix4f cubeTransformation = new Matrix4f();
+
     public NormalRenderer(String vertexShader, String fragmentShader, int vaoId) throws FileNotFoundException
     {
         this.shader = new StaticShader(vertexShader, fragmentShader);
         this.vaoId = vaoId;
     }
 
-    public void loadProjectionMatrix(Matrix4f projectionMatrix)
-    {
-        shader.start();
-        shader.loadProjectionMatrix(projectionMatrix);
-        shader.stop();
-    }
-
-    public void render(GLObject object, Camera camera, Vector3f diffuseColor, int cubeNumber, float selectionEffect, float alpha)
-    {
-        shader.start();
-        shader.loadViewMatrix(camera);
-        shader.loadDiffuseColor(diffuseColor);
-        shader.loadSelectionEffect(selectionEffect);
-        shader.loadAlpha(alpha);
-        Matrix4f objectTransformation = object.getTransformationMatrix();
-        ArrayList<Cube> cubes = object.getCubicParts();
-
-        for (int i = 0; i < cubes.size(); i++)
-        {
-            Cube cube = cubes.get(i);
-            renderCube(cube, i + cubeNumber, objectTransformation);
-        }
-
-        shader.stop();
-    }
-
-    public void render(Tree tree, Camera camera, Vector3f diffuseColor, int cubeNumber, float selectionEffect, float alpha)
+    /**
+     * Draws every entry of a sorted queue with one glDrawElementsBaseVertex call each, binding the VAO once and a texture
+     * only when it differs from the previous entry's.
+     */
+    public void render(RenderQueue queue, Vector3f diffuseColor)
     {
         shader.start();
-        shader.loadViewMatrix(camera);
         shader.loadDiffuseColor(diffuseColor);
-        shader.loadSelectionEffect(selectionEffect);
-        shader.loadAlpha(alpha);
 
-        ArrayList<Tree> trees = tree.getAllTrees();
+        bindVao();
 
-        for (int i = 0; i < trees.size(); i++)
+        for (int i = 0; i < queue.size(); i++)
         {
-            Tree theChosenTree = trees.get(i);
-            renderTree(theChosenTree, i + cubeNumber);
-        }
+            int entry = queue.getEntry(i);
 
-        shader.stop();
-    }
+            if (GLState.bindTexture2D(queue.getCube(entry).getTexture().getId()))
+            {
+                queue.countTextureBind();
+            }
 
-    private void renderTree(Tree theChosenTree, int index)
-    {
-        shader.loadTransformationMatrix(theChosenTree.getTransformationMatrix());
-
-        GL30.glBindVertexArray(vaoId);
-        GL20.glEnableVertexAttribArray(0);
-        GL20.glEnableVertexAttribArray(1);
-        GL20.glEnableVertexAttribArray(2);
-
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, theChosenTree.getBody().getTexture().getId());
-
-        GL11.glDrawArrays(GL11.GL_TRIANGLES, 36 * index, 36);
+            shader.loadSelectionEffect(queue.getSelectionEffect(entry));
+            shader.loadAlpha(queue.getAlpha(entry));
+            shader.loadTransformationMatrix(queue.getTransformation(entry, cubeTransformation));
 
-        GL20.glDisableVertexAttribArray(2);
-        GL20.glDisableVertexAttribArray(1);
-        GL20.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
+            drawCube(queue.getCube(entry));
+            queue.countDrawCall();
+        }
     }
 
-    private void renderCube(Cube cube, int index, Matrix4f objectTransformation)
+    // the shared cube indices, offset to the cube's own vertices
+    private void drawCube(Cube cube)
     {
-        Matrix4f cubeTransformation = cube.getTransformationMatrix();
-        cubeTransformation = objectTransformation.multiply(cubeTransformation);
-        shader.loadTransformationMatrix(cubeTransformation);
-
-        GL30.glBindVertexArray(vaoId);
-        GL20.glEnableVertexAttribArray(0);
-        GL20.glEnableVertexAttribArray(1);
-        GL20.glEnableVertexAttribArray(2);
-
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, cube.getTexture().getId());
-
-        GL11.glDrawArrays(GL11.GL_TRIANGLES, 36 * index, 36);
-
-        GL20.glDisableVertexAttribArray(2);
-        GL20.glDisableVertexAttribArray(1);
-        GL20.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
+        GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, DrawData.INDEX_COUNT, GL11.GL_UNSIGNED_SHORT, 0,
+                cube.getFirstVertex());
     }
 
-    public void renderParticleCube(Cube cube, Camera camera, Vector3f diffuseColor, int index, float selectionEffect, float alpha)
+    // the vertex array, its attributes and the program stay bound between calls, GLState drops the repeats
+    private void bindVao()
     {
-        shader.start();
-        shader.loadViewMatrix(camera);
-        shader.loadDiffuseColor(diffuseColor);
-        shader.loadSelectionEffect(selectionEffect);
-        shader.loadAlpha(alpha);
-        shader.loadTransformationMatrix(cube.getTransformationMatrix());
-
-        GL30.glBindVertexArray(vaoId);
-        GL20.glEnableVertexAttribArray(0);
-        GL20.glEnableVertexAttribArray(1);
-        GL20.glEnableVertexAttribArray(2);
-
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, cube.getTexture().getId());
-
-        GL11.glDrawArrays(GL11.GL_TRIANGLES, 36 * index, 36);
-
-        GL20.glDisableVertexAttribArray(2);
-        GL20.glDisableVertexAttribArray(1);
-        GL20.glDisableVertexAttribArray(0);
-        GL30.glBindVertexArray(0);
-        shader.stop();
+        GLState.bindVertexArray(vaoId);
+        GLState.enableVertexAttribArray(0);
+        GLState.enableVertexAttribArray(1);
+        GLState.enableVertexAttribArray(2);
+        GLState.activeTexture(0);
     }
 
     public void cleanUp()
@@ -0,0 +1,56 @@
+package render;
+
+import model.BoundingVolume;
+import model.GLObject;
+
+/**
+ * An opening between two {@link Cell}s that is closed off by a movable object, like the door or the window.
+ * The portal lets the cells see each other while its object is rotated away from its rest position, or always
+ * when the object can be seen through.
+ */
+public class Portal
+{
+    private final Cell first;
+    private final Cell second;
+    private final BoundingVolume opening;
+    private final GLObject leaf;
+    private final boolean translucent;
+
+    /**
+     * @param opening     World bounds of the opening, normally the bounds of the leaf in its closed position
+     * @param leaf        The object that closes the opening
+     * @param translucent Whether the leaf can be seen through, in which case the portal never closes
+     */
+    public Portal(Cell first, Cell second, BoundingVolume opening, GLObject leaf, boolean translucent)
+    {
+        this.first = first;
+        this.second = second;
+        this.opening = opening;
+        this.leaf = leaf;
+        this.translucent = translucent;
+
+        first.addPortal(this);
+        second.addPortal(this);
+    }
+
+    // the leaf's state as of the last frame it was submitted in, the culler runs before this frame's submissions
+    public boolean isOpen()
+    {
+        return translucent || leaf.getRenderState().isRotated();
+    }
+
+    public Cell getOtherCell(Cell cell)
+    {
+        return cell == first ? second : first;
+    }
+
+    public BoundingVolume getOpening()
+    {
+        return opening;
+    }
+
+    public GLObject getLeaf()
+    {
+        return leaf;
+    }
+}
@@ -0,0 +1,287 @@
+package render;
+
+import model.BoundingVolume;
+import model.GLObject;
+import model.Tree;
+import util.Matrix4f;
+import util.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Cell and portal visibility. Every frame the cell holding the camera is visible in full, and visibility then
+ * floods through the open portals that are on screen. Each cell reached that way remembers the screen rectangle
+ * it is seen through, narrowed by every portal on the way, and its objects are only drawn when their projected
+ * bounds overlap that rectangle.
+ * <p>
+ * Objects and trees can belong to several cells, the walls around an opening for example are seen from both
+ * sides. Anything that was never assigned to a cell is always visible.
+ */
+public class PortalCuller
+{
+    private static final int MAXIMUM_CELLS = 32;
+    private static final int MAXIMUM_PORTAL_DEPTH = 8;
+
+    private final ArrayList<Cell> cells = new ArrayList<>();
+    // one bit per cell index for every assigned object or tree
+    private final HashMap<Object, Integer> cellMasks = new HashMap<>();
+    private Cell cameraCell;
+
+    private final float[] matrix = new float[16];
+    private final float[] boundsRect = new float[4];
+    private final float[][] portalRects = new float[MAXIMUM_PORTAL_DEPTH][4];
+
+    public Cell addCell(Cell cell)
+    {
+        if (cells.size() == MAXIMUM_CELLS)
+        {
+            throw new IllegalStateException("At most " + MAXIMUM_CELLS + " cells are supported");
+        }
+
+        cells.add(cell);
+        return cell;
+    }
+
+    public void assign(GLObject object, Cell cell)
+    {
+        assignMember(object, cell);
+    }
+
+    public void assign(Tree tree, Cell cell)
+    {
+        assignMember(tree, cell);
+    }
+
+    private void assignMember(Object member, Cell cell)
+    {
+        int index = cells.indexOf(cell);
+
+        if (index < 0)
+        {
+            throw new IllegalArgumentException("Cell " + cell.getName() + " has not been added");
+        }
+
+        Integer mask = cellMasks.get(member);
+        cellMasks.put(member, (mask == null ? 0 : mask) | (1 << index));
+    }
+
+    /**
+     * Finds the camera's cell and floods visibility from it. Call once per frame before any
+     * {@link #isVisible(Object, BoundingVolume)} query.
+     */
+    public void update(Vector3f cameraPosition, Matrix4f projectionViewMatrix)
+    {
+        projectionViewMatrix.toArray(matrix, 0);
+        cameraCell = null;
+
+        for (int i = 0; i < cells.size(); i++)
+        {
+            Cell cell = cells.get(i);
+            cell.visible = false;
+
+            if (cameraCell == null && cell.contains(cameraPosition.x, cameraPosition.y, cameraPosition.z))
+            {
+                cameraCell = cell;
+            }
+        }
+
+        if (cameraCell == null)
+        {
+            cameraCell = getUnboundedCell();
+        }
+
+        if (cameraCell == null)
+        {
+            return;
+        }
+
+        cameraCell.visible = true;
+        setFullScreen(cameraCell.clipRect);
+        flood(cameraCell, cameraCell.clipRect, 0);
+    }
+
+    private Cell getUnboundedCell()
+    {
+        for (int i = 0; i < cells.size(); i++)
+        {
+            if (cells.get(i).getRegion() == null)
+            {
+                return cells.get(i);
+            }
+        }
+
+        return null;
+    }
+
+    private void flood(Cell cell, float[] clipRect, int depth)
+    {
+        if (depth == MAXIMUM_PORTAL_DEPTH)
+        {
+            return;
+        }
+
+        float[] portalRect = portalRects[depth];
+
+        for (int i = 0; i < cell.getPortals().size(); i++)
+        {
+            Portal portal = cell.getPortals().get(i);
+            Cell next = portal.getOtherCell(cell);
+
+            if (next == cameraCell || !portal.isOpen())
+            {
+                continue;
+            }
+
+            if (!project(portal.getOpening(), portalRect) || !intersect(portalRect, clipRect, portalRect))
+            {
+                continue;
+            }
+
+            if (!next.visible)
+            {
+                next.visible = true;
+                System.arraycopy(portalRect, 0, next.clipRect, 0, 4);
+            } else if (contains(next.clipRect, portalRect))
+            {
+                continue;
+            } else
+            {
+                union(next.clipRect, portalRect);
+            }
+
+            flood(next, portalRect, depth + 1);
+        }
+    }
+
+    /**
+     * @param member The object or tree the bounds belong to, or the root of the tree for one of its branches
+     * @param bounds World bounds to test, updated for this frame
+     */
+    public boolean isVisible(Object member, BoundingVolume bounds)
+    {
+        Integer mask = cellMasks.get(member);
+
+        if (mask == null || cameraCell == null)
+        {
+            return true;
+        }
+
+        boolean projected = false;
+
+        for (int i = 0; i < cells.size(); i++)
+        {
+            Cell cell = cells.get(i);
+
+            if ((mask & (1 << i)) == 0 || !cell.visible)
+            {
+                continue;
+            }
+
+            if (cell == cameraCell)
+            {
+                return true;
+            }
+
+            if (!projected)
+            {
+                if (!project(bounds, boundsRect))
+                {
+                    return false;
+                }
+
+                projected = true;
+            }
+
+            if (overlaps(boundsRect, cell.clipRect))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public Cell getCameraCell()
+    {
+        return cameraCell;
+    }
+
+    // normalized device rectangle of a box, the full screen when a corner is at or behind the camera
+    private boolean project(BoundingVolume bounds, float[] rect)
+    {
+        if (bounds.isEmpty())
+        {
+            return false;
+        }
+
+        rect[0] = rect[1] = Float.POSITIVE_INFINITY;
+        rect[2] = rect[3] = Float.NEGATIVE_INFINITY;
+
+        for (int corner = 0; corner < 8; corner++)
+        {
+            float x = (corner & 1) == 0 ? bounds.getMinX() : bounds.getMaxX();
+            float y = (corner & 2) == 0 ? bounds.getMinY() : bounds.getMaxY();
+            float z = (corner & 4) == 0 ? bounds.getMinZ() : bounds.getMaxZ();
+
+            float w = matrix[3] * x + matrix[7] * y + matrix[11] * z + matrix[15];
+
+            if (w <= 1.0e-5f)
+            {
+                setFullScreen(rect);
+                return true;
+            }
+
+            float screenX = (matrix[0] * x + matrix[4] * y + matrix[8] * z + matrix[12]) / w;
+            float screenY = (matrix[1] * x + matrix[5] * y + matrix[9] * z + matrix[13]) / w;
+
+            rect[0] = Math.min(rect[0], screenX);
+            rect[1] = Math.min(rect[1], screenY);
+            rect[2] = Math.max(rect[2], screenX);
+            rect[3] = Math.max(rect[3], screenY);
+        }
+
+        rect[0] = Math.max(rect[0], -1.0f);
+        rect[1] = Math.max(rect[1], -1.0f);
+        rect[2] = Math.min(rect[2], 1.0f);
+        rect[3] = Math.min(rect[3], 1.0f);
+
+        return rect[0] <= rect[2] && rect[1] <= rect[3];
+    }
+
+    private static void setFullScreen(float[] rect)
+    {
+        rect[0] = -1.0f;
+        rect[1] = -1.0f;
+        rect[2] = 1.0f;
+        rect[3] = 1.0f;
+    }
+
+    private static boolean intersect(float[] first, float[] second, float[] dst)
+    {
+        dst[0] = Math.max(first[0], second[0]);
+        dst[1] = Math.max(first[1], second[1]);
+        dst[2] = Math.min(first[2], second[2]);
+        dst[3] = Math.min(first[3], second[3]);
+
+        return dst[0] <= dst[2] && dst[1] <= dst[3];
+    }
+
+    private static boolean overlaps(float[] first, float[] second)
+    {
+        return first[0] <= second[2] && second[0] <= first[2] && first[1] <= second[3] && second[1] <= first[3];
+    }
+
+    private static boolean contains(float[] outer, float[] inner)
+    {
+        return outer[0] <= inner[0] && outer[1] <= inner[1] && outer[2] >= inner[2] && outer[3] >= inner[3];
+    }
+
+    private static void union(float[] dst, float[] other)
+    {
+        dst[0] = Math.min(dst[0], other[0]);
+        dst[1] = Math.min(dst[1], other[1]);
+        dst[2] = Math.max(dst[2], other[2]);
+        dst[3] = Math.max(dst[3], other[3]);
+    }
+}
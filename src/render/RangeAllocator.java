@@ -0,0 +1,84 @@
+package render;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hands out ranges of a buffer, measured in elements, from a free list. Free ranges are kept sorted by their start
+ * and merged with their neighbours when a range is freed, so the space freed by a despawned object can be used by
+ * any later allocation that fits into it. Allocation is first fit.
+ */
+public class RangeAllocator
+{
+    // start of every free range mapped to its length
+    private final TreeMap<Integer, Integer> freeRanges = new TreeMap<>();
+    private int capacity;
+
+    public RangeAllocator(int capacity)
+    {
+        grow(capacity);
+    }
+
+    /**
+     * @return The start of the allocated range, or -1 when no free range is long enough
+     */
+    public int allocate(int length)
+    {
+        for (Map.Entry<Integer, Integer> range : freeRanges.entrySet())
+        {
+            int start = range.getKey();
+            int freeLength = range.getValue();
+
+            if (freeLength < length)
+            {
+                continue;
+            }
+
+            freeRanges.remove(start);
+            if (freeLength > length)
+            {
+                freeRanges.put(start + length, freeLength - length);
+            }
+
+            return start;
+        }
+
+        return -1;
+    }
+
+    public void free(int start, int length)
+    {
+        Map.Entry<Integer, Integer> previous = freeRanges.floorEntry(start);
+        if (previous != null && previous.getKey() + previous.getValue() == start)
+        {
+            start = previous.getKey();
+            length += previous.getValue();
+        }
+
+        Integer nextLength = freeRanges.remove(start + length);
+        if (nextLength != null)
+        {
+            length += nextLength;
+        }
+
+        freeRanges.put(start, length);
+    }
+
+    /**
+     * Adds the space between the old and the new capacity as a free range.
+     */
+    public void grow(int newCapacity)
+    {
+        if (newCapacity > capacity)
+        {
+            int oldCapacity = capacity;
+            capacity = newCapacity;
+            free(oldCapacity, newCapacity - oldCapacity);
+        }
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+}
@@ -0,0 +1,308 @@
+package render;
+
+import model.BoundingVolume;
+import model.GLObject;
+import model.Tree;
+import model.shape.Cube;
+import util.Matrix4f;
+import util.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Collects one entry per cube to draw in a frame and orders them by a 64-bit sort key, so renderers can walk the
+ * entries in an order that keeps state changes to a minimum.
+ * <p>
+ * Opaque keys are laid out as pass | texture | depth, which groups draws by texture and draws front to back inside
+ * a group. Translucent keys are pass | inverted depth | texture, which draws them back to front after all opaque
+ * geometry. Every frame's queue is drawn by a single renderer, so the key has no program bits. The lowest bits hold
+ * the entry index, so sorting the raw keys is enough and no objects are allocated once the arrays have grown to the
+ * scene size.
+ * <p>
+ * Submissions are culled against the frame's view frustum and, when a {@link PortalCuller} is set, against the
+ * cells seen through its portals. Objects and trees are tested as a whole first, so a rejected object or branch
+ * costs a single test no matter how many cubes it holds.
+ */
+public class RenderQueue
+{
+    public static final int OPAQUE_PASS = 0;
+    public static final int TRANSLUCENT_PASS = 1;
+
+    private static final int INDEX_BITS = 22;
+    private static final int DEPTH_BITS = 26;
+    private static final int TEXTURE_BITS = 14;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final long TEXTURE_MASK = (1L << TEXTURE_BITS) - 1;
+    private static final int PASS_SHIFT = INDEX_BITS + DEPTH_BITS + TEXTURE_BITS;
+    // the entry index has to fit into the low bits of its key
+    private static final int MAXIMUM_ENTRIES = 1 << INDEX_BITS;
+
+    private final float maximumDepth;
+
+    private long[] keys;
+    private Cube[] cubes;
+    private float[] matrices;
+    private float[] selectionEffects;
+    private float[] alphas;
+    private int size;
+
+    private final Vector3f cameraPosition = new Vector3f();
+    private final Frustum frustum = new Frustum();
+    private PortalCuller portalCuller;
+    private final Matrix4f cubeTransformation = new Matrix4f();
+
+    private int textureBinds;
+    private int drawCalls;
+    private int culledCubes;
+
+    public RenderQueue(float maximumDepth)
+    {
+        this.maximumDepth = maximumDepth;
+        this.keys = new long[256];
+        this.cubes = new Cube[256];
+        this.matrices = new float[256 * 16];
+        this.selectionEffects = new float[256];
+        this.alphas = new float[256];
+    }
+
+    /**
+     * Empties the queue and resets the per-frame statistics.
+     *
+     * @param cameraPosition       Position depths are measured from this frame
+     * @param projectionViewMatrix The frame's projection * view matrix, submissions outside of it are culled
+     */
+    public void clear(Vector3f cameraPosition, Matrix4f projectionViewMatrix)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            cubes[i] = null;
+        }
+
+        size = 0;
+        textureBinds = 0;
+        drawCalls = 0;
+        culledCubes = 0;
+        this.cameraPosition.set(cameraPosition);
+        frustum.update(projectionViewMatrix);
+
+        if (portalCuller != null)
+        {
+            portalCuller.update(cameraPosition, projectionViewMatrix);
+        }
+    }
+
+    /**
+     * @param portalCuller Cells and portals to cull against from the next {@link #clear} on, or null for none
+     */
+    public void setPortalCuller(PortalCuller portalCuller)
+    {
+        this.portalCuller = portalCuller;
+    }
+
+    public void submit(GLObject object, float selectionEffect, float alpha)
+    {
+        ArrayList<Cube> cubes = object.getCubicParts();
+
+        if (!isVisible(object, object.updateBounds()))
+        {
+            culledCubes += cubes.size();
+            return;
+        }
+
+        // the render states taken by updateBounds, so the matrices match the bounds that were tested
+        Matrix4f objectTransformation = object.getRenderState().getMatrix();
+
+        for (int i = 0; i < cubes.size(); i++)
+        {
+            Cube cube = cubes.get(i);
+
+            if (!isVisible(object, cube.getBounds()))
+            {
+                culledCubes++;
+                continue;
+            }
+
+            objectTransformation.mulInto(cube.getRenderState().getMatrix(), cubeTransformation);
+            submit(cube, cubeTransformation, selectionEffect, alpha);
+        }
+    }
+
+    /**
+     * Refreshes the tree's world matrices and submits all of its visible branches.
+     */
+    public void submit(Tree tree, float selectionEffect, float alpha)
+    {
+        tree.updateWorldMatrices();
+        submitTree(tree, tree, selectionEffect, alpha);
+    }
+
+    private void submitTree(Tree root, Tree tree, float selectionEffect, float alpha)
+    {
+        if (!isVisible(root, tree.getBounds()))
+        {
+            culledCubes += tree.getCubeCount();
+            return;
+        }
+
+        if (isVisible(root, tree.getBody().getBounds()))
+        {
+            submit(tree.getBody(), tree.getWorldMatrix(), selectionEffect, alpha);
+        } else
+        {
+            culledCubes++;
+        }
+
+        ArrayList<Tree> children = tree.getChildren();
+        for (int i = 0; i < children.size(); i++)
+        {
+            submitTree(root, children.get(i), selectionEffect, alpha);
+        }
+    }
+
+    private boolean isVisible(Object member, BoundingVolume bounds)
+    {
+        return frustum.intersects(bounds) && (portalCuller == null || portalCuller.isVisible(member, bounds));
+    }
+
+    /**
+     * @param transformation The cube's full world transformation, applied on top of its own vertices
+     */
+    public void submit(Cube cube, Matrix4f transformation, float selectionEffect, float alpha)
+    {
+        if (size == MAXIMUM_ENTRIES)
+        {
+            throw new IllegalStateException("Render queue is limited to " + MAXIMUM_ENTRIES + " entries per frame");
+        }
+
+        ensureCapacity(size + 1);
+
+        int index = size++;
+        cubes[index] = cube;
+        transformation.toArray(matrices, index * 16);
+        selectionEffects[index] = selectionEffect;
+        alphas[index] = alpha;
+
+        int pass = alpha < 1.0f ? TRANSLUCENT_PASS : OPAQUE_PASS;
+        keys[index] = makeKey(pass, cube.getTexture().getId(), quantizeDepth(index, cube.getCenter()), index);
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= keys.length)
+        {
+            return;
+        }
+
+        int newLength = Math.min(Math.max(capacity, keys.length * 2), MAXIMUM_ENTRIES);
+        keys = Arrays.copyOf(keys, newLength);
+        cubes = Arrays.copyOf(cubes, newLength);
+        matrices = Arrays.copyOf(matrices, newLength * 16);
+        selectionEffects = Arrays.copyOf(selectionEffects, newLength);
+        alphas = Arrays.copyOf(alphas, newLength);
+    }
+
+    // distance from the camera to the transformed cube center, scaled to the depth bits of the key
+    private long quantizeDepth(int index, Vector3f center)
+    {
+        int offset = index * 16;
+        float x = matrices[offset] * center.x + matrices[offset + 4] * center.y + matrices[offset + 8] * center.z + matrices[offset + 12];
+        float y = matrices[offset + 1] * center.x + matrices[offset + 5] * center.y + matrices[offset + 9] * center.z + matrices[offset + 13];
+        float z = matrices[offset + 2] * center.x + matrices[offset + 6] * center.y + matrices[offset + 10] * center.z + matrices[offset + 14];
+
+        float dx = x - cameraPosition.x;
+        float dy = y - cameraPosition.y;
+        float dz = z - cameraPosition.z;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+        return (long) (Math.min(distance / maximumDepth, 1.0f) * DEPTH_MASK);
+    }
+
+    static long makeKey(int pass, int texture, long depth, int index)
+    {
+        long key = (long) pass << PASS_SHIFT;
+
+        if (pass == TRANSLUCENT_PASS)
+        {
+            key |= (DEPTH_MASK - depth) << (INDEX_BITS + TEXTURE_BITS);
+            key |= (texture & TEXTURE_MASK) << INDEX_BITS;
+        } else
+        {
+            key |= (texture & TEXTURE_MASK) << (INDEX_BITS + DEPTH_BITS);
+            key |= depth << INDEX_BITS;
+        }
+
+        return key | (index & INDEX_MASK);
+    }
+
+    public void sort()
+    {
+        Arrays.sort(keys, 0, size);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param position Position in sorted order
+     *
+     * @return Index of the entry drawn at that position
+     */
+    public int getEntry(int position)
+    {
+        return (int) (keys[position] & INDEX_MASK);
+    }
+
+    public int getPass(int position)
+    {
+        return (int) (keys[position] >>> PASS_SHIFT);
+    }
+
+    public Cube getCube(int entry)
+    {
+        return cubes[entry];
+    }
+
+    public Matrix4f getTransformation(int entry, Matrix4f dst)
+    {
+        return dst.set(matrices, entry * 16);
+    }
+
+    public float getSelectionEffect(int entry)
+    {
+        return selectionEffects[entry];
+    }
+
+    public float getAlpha(int entry)
+    {
+        return alphas[entry];
+    }
+
+    public void countTextureBind()
+    {
+        textureBinds++;
+    }
+
+    public void countDrawCall()
+    {
+        drawCalls++;
+    }
+
+    public int getTextureBinds()
+    {
+        return textureBinds;
+    }
+
+    public int getDrawCalls()
+    {
+        return drawCalls;
+    }
+
+    public int getCulledCubes()
+    {
+        return culledCubes;
+    }
+}
@@ -0,0 +1,192 @@
+package render;
+
+import model.GLObject;
+import model.Tree;
+import model.shape.Cube;
+import model.shape.DrawData;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+
+import java.util.ArrayList;
+
+/**
+ * The vertex buffers of every cube drawn from the scene's vertex array: positions at attribute 0, texture
+ * coordinates at 1 and normals at 2. Space is handed out by a {@link RangeAllocator}, so objects and trees can be
+ * added and removed at any time. Every cube remembers where its vertices start, adding one only uploads its own
+ * vertices with glBufferSubData and removing one only returns its range to the free list.
+ * <p>
+ * Cubes are indexed: all of them share the 36 indices of one cube in the vertex array's element buffer and are
+ * drawn with glDrawElementsBaseVertex from their first vertex.
+ * <p>
+ * When the free list has no range that fits, the buffers are doubled and the old contents copied over on the GPU.
+ * Render thread only.
+ */
+public class SceneGeometry
+{
+    private static final int[] ATTRIBUTE_SIZES = {3, 2, 3};
+    private static final int MINIMUM_CAPACITY = 64 * Cube.VERTEX_COUNT;
+
+    private final int vaoId;
+    private final int[] vboIds = new int[ATTRIBUTE_SIZES.length];
+    private final int eboId;
+    private final RangeAllocator allocator;
+
+    /**
+     * @param initialCubes How many cubes to make room for up front
+     */
+    public SceneGeometry(int initialCubes)
+    {
+        int capacity = Math.max(initialCubes * Cube.VERTEX_COUNT, MINIMUM_CAPACITY);
+
+        this.vaoId = GL30.glGenVertexArrays();
+        this.allocator = new RangeAllocator(capacity);
+
+        GLState.bindVertexArray(vaoId);
+        for (int i = 0; i < ATTRIBUTE_SIZES.length; i++)
+        {
+            vboIds[i] = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboIds[i]);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) capacity * ATTRIBUTE_SIZES[i] * 4, GL15.GL_DYNAMIC_DRAW);
+            GL20.glVertexAttribPointer(i, ATTRIBUTE_SIZES[i], GL11.GL_FLOAT, false, 4 * ATTRIBUTE_SIZES[i], 0);
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        // part of the vertex array's state, so it stays bound with it
+        eboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, eboId);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, DrawData.getCubeIndices(), GL15.GL_STATIC_DRAW);
+        GLState.bindVertexArray(0);
+    }
+
+    public void add(GLObject object)
+    {
+        add(object.getCubicParts());
+    }
+
+    public void add(Tree tree)
+    {
+        add(tree.getCubes());
+    }
+
+    /**
+     * Uploads the cubes next to each other into one free range. The cubes must still have their draw data.
+     */
+    public void add(ArrayList<Cube> cubes)
+    {
+        int vertexCount = cubes.size() * Cube.VERTEX_COUNT;
+        int firstVertex = allocator.allocate(vertexCount);
+
+        while (firstVertex < 0)
+        {
+            grow(allocator.getCapacity() + vertexCount);
+            firstVertex = allocator.allocate(vertexCount);
+        }
+
+        for (int i = 0; i < cubes.size(); i++)
+        {
+            cubes.get(i).setFirstVertex(firstVertex + i * Cube.VERTEX_COUNT);
+        }
+
+        for (int attribute = 0; attribute < ATTRIBUTE_SIZES.length; attribute++)
+        {
+            try (VertexArena arena = new VertexArena())
+            {
+                for (Cube cube : cubes)
+                {
+                    arena.put(getAttribute(cube.getDrawData(), attribute));
+                }
+
+                GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboIds[attribute]);
+                arena.uploadAt(GL15.GL_ARRAY_BUFFER, (long) firstVertex * ATTRIBUTE_SIZES[attribute] * 4);
+            }
+        }
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    private static float[] getAttribute(DrawData drawData, int attribute)
+    {
+        switch (attribute)
+        {
+            case 0:
+                return drawData.getVertices();
+            case 1:
+                return drawData.getTextureCoordinates();
+            default:
+                return drawData.getNormals();
+        }
+    }
+
+    public void remove(GLObject object)
+    {
+        remove(object.getCubicParts());
+    }
+
+    public void remove(Tree tree)
+    {
+        remove(tree.getCubes());
+    }
+
+    /**
+     * Frees the cubes' vertices. What was uploaded stays in the buffers until another cube gets the range.
+     */
+    public void remove(ArrayList<Cube> cubes)
+    {
+        for (Cube cube : cubes)
+        {
+            if (cube.getFirstVertex() >= 0)
+            {
+                allocator.free(cube.getFirstVertex(), Cube.VERTEX_COUNT);
+                cube.setFirstVertex(-1);
+            }
+        }
+    }
+
+    // at least doubles the buffers, cubes keep their positions since the old contents are copied to the front
+    private void grow(int minimumCapacity)
+    {
+        int oldCapacity = allocator.getCapacity();
+        int newCapacity = Math.max(minimumCapacity, oldCapacity * 2);
+
+        GLState.bindVertexArray(vaoId);
+        for (int i = 0; i < ATTRIBUTE_SIZES.length; i++)
+        {
+            int vboId = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, vboId);
+            GL15.glBufferData(GL31.GL_COPY_WRITE_BUFFER, (long) newCapacity * ATTRIBUTE_SIZES[i] * 4,
+                    GL15.GL_DYNAMIC_DRAW);
+            GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, vboIds[i]);
+            GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER, 0, 0,
+                    (long) oldCapacity * ATTRIBUTE_SIZES[i] * 4);
+            GL15.glDeleteBuffers(vboIds[i]);
+            vboIds[i] = vboId;
+
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+            GL20.glVertexAttribPointer(i, ATTRIBUTE_SIZES[i], GL11.GL_FLOAT, false, 4 * ATTRIBUTE_SIZES[i], 0);
+        }
+        GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, 0);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GLState.bindVertexArray(0);
+
+        allocator.grow(newCapacity);
+    }
+
+    public int getVaoId()
+    {
+        return vaoId;
+    }
+
+    public void cleanUp()
+    {
+        for (int vboId : vboIds)
+        {
+            GL15.glDeleteBuffers(vboId);
+        }
+
+        GL15.glDeleteBuffers(eboId);
+        GLState.deleteVertexArray(vaoId);
+    }
+}
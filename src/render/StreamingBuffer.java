@@ -0,0 +1,213 @@
+package render;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Buffer object for data that is rewritten every frame, like instance attributes. The buffer is three times the
+ * size of one frame's data and every frame writes the next of the three regions, so the CPU fills one region while
+ * the GPU may still read the two before it. A fence placed after a region was used makes the CPU wait in the rare
+ * case it gets two whole frames ahead.
+ * <p>
+ * Where buffer storage is available (OpenGL 4.4 or ARB_buffer_storage) the buffer is mapped once, persistently
+ * and coherently, and frames write straight into it. Otherwise the data is staged in CPU memory and uploaded into
+ * an orphaned buffer, so the driver hands out fresh storage instead of waiting for the GPU. The buffer is only ever
+ * reallocated when a frame needs more room than every frame before it.
+ */
+public class StreamingBuffer
+{
+    private static final int REGIONS = 3;
+    // keeps every region start suitable for any attribute or uniform buffer offset
+    private static final long ALIGNMENT = 256;
+    private static final int STORAGE_FLAGS = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT
+            | GL44.GL_MAP_COHERENT_BIT;
+
+    private final int target;
+    private final boolean persistent;
+    private int bufferId;
+    private long regionBytes;
+
+    // persistent: view of the whole mapped buffer, otherwise the staging memory of one region
+    private FloatBuffer data;
+    private final long[] fences = new long[REGIONS];
+    private int region = -1;
+
+    /**
+     * @param target       The binding target the buffer is used with, e.g. GL_ARRAY_BUFFER
+     * @param initialBytes Room for one frame to start with, grows as needed
+     */
+    public StreamingBuffer(int target, long initialBytes)
+    {
+        GLCapabilities capabilities = GL.getCapabilities();
+
+        this.target = target;
+        this.persistent = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+        this.regionBytes = align(initialBytes);
+        create();
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private void create()
+    {
+        bufferId = GL15.glGenBuffers();
+
+        if (persistent)
+        {
+            GL15.glBindBuffer(target, bufferId);
+            GL44.glBufferStorage(target, regionBytes * REGIONS, STORAGE_FLAGS);
+            data = GL30.glMapBufferRange(target, 0, regionBytes * REGIONS, STORAGE_FLAGS)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+            GL15.glBindBuffer(target, 0);
+        } else
+        {
+            data = MemoryUtil.memAllocFloat((int) (regionBytes / 4));
+        }
+
+        region = -1;
+    }
+
+    /**
+     * Starts the frame's data. Everything the previous frame issued is fenced first, then the next region is
+     * waited for if the GPU still reads it.
+     *
+     * @return A buffer positioned at the start of the frame's region with room for exactly the given number of
+     * floats. Must be filled before {@link #unmap()}.
+     */
+    public FloatBuffer map(int floatCount)
+    {
+        ensureCapacity(floatCount * 4L);
+
+        if (!persistent)
+        {
+            data.clear().limit(floatCount);
+            return data;
+        }
+
+        if (region >= 0)
+        {
+            fences[region] = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+
+        region = (region + 1) % REGIONS;
+        waitForRegion(region);
+
+        int first = (int) (region * regionBytes / 4);
+        data.limit(first + floatCount).position(first);
+        return data;
+    }
+
+    /**
+     * Makes the frame's data visible to the GPU. A persistent mapping is coherent, so only staged data needs an
+     * upload.
+     */
+    public void unmap()
+    {
+        if (persistent)
+        {
+            return;
+        }
+
+        data.flip();
+        GL15.glBindBuffer(target, bufferId);
+        // orphans the storage the GPU may still read instead of waiting for it
+        GL15.glBufferData(target, regionBytes, GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(target, 0, data);
+        GL15.glBindBuffer(target, 0);
+    }
+
+    /**
+     * @return Where the data of the current frame starts in the buffer object, in bytes
+     */
+    public long getOffset()
+    {
+        return persistent ? region * regionBytes : 0;
+    }
+
+    public int getId()
+    {
+        return bufferId;
+    }
+
+    private void waitForRegion(int index)
+    {
+        long fence = fences[index];
+
+        if (fence == 0)
+        {
+            return;
+        }
+
+        int status = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, 0);
+        while (status != GL32.GL_ALREADY_SIGNALED && status != GL32.GL_CONDITION_SATISFIED
+                && status != GL32.GL_WAIT_FAILED)
+        {
+            status = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, 1_000_000L);
+        }
+
+        GL32.glDeleteSync(fence);
+        fences[index] = 0;
+    }
+
+    // a larger frame replaces the buffer, the old one stays alive in the driver until the GPU is done with it
+    private void ensureCapacity(long bytes)
+    {
+        if (bytes <= regionBytes)
+        {
+            return;
+        }
+
+        regionBytes = align(Math.max(bytes, regionBytes * 2));
+
+        if (persistent)
+        {
+            delete();
+            create();
+        } else
+        {
+            data = MemoryUtil.memRealloc(data, (int) (regionBytes / 4));
+        }
+    }
+
+    private void delete()
+    {
+        for (int i = 0; i < REGIONS; i++)
+        {
+            if (fences[i] != 0)
+            {
+                GL32.glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+
+        if (persistent)
+        {
+            GL15.glBindBuffer(target, bufferId);
+            GL15.glUnmapBuffer(target);
+            GL15.glBindBuffer(target, 0);
+        }
+
+        GL15.glDeleteBuffers(bufferId);
+    }
+
+    public void cleanUp()
+    {
+        delete();
+
+        if (!persistent)
+        {
+            MemoryUtil.memFree(data);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package render;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+
+/**
+ * Off-heap staging memory for vertex data. Floats are streamed into fixed-size chunks allocated with
+ * {@link MemoryUtil#memAllocFloat(int)}, so the arena grows without ever copying what it already holds and
+ * is not limited by the size of the thread's {@code MemoryStack}. The chunks are uploaded one after the other
+ * into a single buffer object and must be freed with {@link #close()}.
+ */
+public class VertexArena implements AutoCloseable
+{
+    private static final int DEFAULT_CHUNK_FLOATS = 1 << 20;
+
+    private final int chunkFloats;
+    private final ArrayList<FloatBuffer> chunks;
+    private FloatBuffer current;
+    private long size;
+
+    public VertexArena()
+    {
+        this(DEFAULT_CHUNK_FLOATS);
+    }
+
+    public VertexArena(int chunkFloats)
+    {
+        this.chunkFloats = chunkFloats;
+        this.chunks = new ArrayList<>();
+    }
+
+    public VertexArena put(float[] values)
+    {
+        int offset = 0;
+
+        while (offset < values.length)
+        {
+            ensureRemaining();
+            int count = Math.min(current.remaining(), values.length - offset);
+            current.put(values, offset, count);
+            offset += count;
+        }
+
+        size += values.length;
+        return this;
+    }
+
+    public VertexArena put(float value)
+    {
+        ensureRemaining();
+        current.put(value);
+        size++;
+        return this;
+    }
+
+    private void ensureRemaining()
+    {
+        if (current == null || !current.hasRemaining())
+        {
+            current = MemoryUtil.memAllocFloat(chunkFloats);
+            chunks.add(current);
+        }
+    }
+
+    /**
+     * Number of floats written so far.
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * Allocates the currently bound buffer object for the whole arena and copies every chunk into it.
+     */
+    public void upload(int target, int usage)
+    {
+        GL15.glBufferData(target, size * 4, usage);
+        uploadAt(target, 0);
+    }
+
+    /**
+     * Copies every chunk into the currently bound buffer object, which must already have room for the arena
+     * from the given offset on.
+     */
+    public void uploadAt(int target, long byteOffset)
+    {
+        for (FloatBuffer chunk : chunks)
+        {
+            FloatBuffer written = chunk.duplicate();
+            written.flip();
+            GL15.glBufferSubData(target, byteOffset, written);
+            byteOffset += written.remaining() * 4L;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        for (FloatBuffer chunk : chunks)
+        {
+            MemoryUtil.memFree(chunk);
+        }
+
+        chunks.clear();
+        current = null;
+        size = 0;
+    }
+}
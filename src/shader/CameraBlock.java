@@ -0,0 +1,103 @@
+package shader;
+
+import camera.Camera;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import util.Matrix4f;
+
+import java.nio.FloatBuffer;
+
+/**
+ * The per-frame camera state, computed once per frame and shared with every shader program through a uniform
+ * buffer object. Shaders read it from a std140 block:
+ * <pre>
+ * layout (std140) uniform CameraBlock
+ * {
+ *     mat4 projectionMatrix;
+ *     mat4 viewMatrix;
+ *     mat4 projectionViewMatrix;
+ * };
+ * </pre>
+ * {@link ShaderProgram} binds a block of that name to {@link #BINDING} for every program it links.
+ */
+public class CameraBlock
+{
+    public static final String BLOCK_NAME = "CameraBlock";
+    public static final int BINDING = 0;
+
+    private static final int MATRIX_FLOATS = 16;
+
+    private final int uboId;
+    private final FloatBuffer buffer;
+    private final FloatBuffer matrixBuffer;
+
+    private final Matrix4f projectionMatrix = new Matrix4f();
+    private final Matrix4f viewMatrix = new Matrix4f();
+    private final Matrix4f projectionViewMatrix = new Matrix4f();
+
+    public CameraBlock(Matrix4f projectionMatrix)
+    {
+        this.projectionMatrix.set(projectionMatrix);
+        this.buffer = BufferUtils.createFloatBuffer(3 * MATRIX_FLOATS);
+        this.matrixBuffer = BufferUtils.createFloatBuffer(MATRIX_FLOATS);
+
+        uboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, 3 * MATRIX_FLOATS * 4, GL15.GL_DYNAMIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+        GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING, uboId);
+    }
+
+    public void setProjectionMatrix(Matrix4f projectionMatrix)
+    {
+        this.projectionMatrix.set(projectionMatrix);
+    }
+
+    /**
+     * Recomputes the view and projection-view matrices from the camera and uploads the whole block. Call once per
+     * frame before anything is drawn.
+     */
+    public void update(Camera camera)
+    {
+        camera.getViewMatrix(viewMatrix);
+        projectionMatrix.mulInto(viewMatrix, projectionViewMatrix);
+
+        buffer.clear();
+        put(projectionMatrix);
+        put(viewMatrix);
+        put(projectionViewMatrix);
+        buffer.flip();
+
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, buffer);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+    }
+
+    private void put(Matrix4f matrix)
+    {
+        matrix.toBuffer(matrixBuffer);
+        buffer.put(matrixBuffer);
+    }
+
+    public Matrix4f getProjectionMatrix()
+    {
+        return projectionMatrix;
+    }
+
+    public Matrix4f getViewMatrix()
+    {
+        return viewMatrix;
+    }
+
+    public Matrix4f getProjectionViewMatrix()
+    {
+        return projectionViewMatrix;
+    }
+
+    public void cleanUp()
+    {
+        GL15.glDeleteBuffers(uboId);
+    }
+}
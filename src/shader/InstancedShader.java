@@ -0,0 +1,27 @@
+package shader;
+
+import util.Vector3f;
+
+import java.io.FileNotFoundException;
+
+public class InstancedShader extends ShaderProgram
+{
+    private int location_diffuseColor;
+
+    public InstancedShader(String vertexShaderFileName, String fragmentShaderFileName) throws FileNotFoundException
+    {
+        super(vertexShaderFileName, fragmentShaderFileName);
+        getAllUniformLocations();
+    }
+
+    @Override
+    protected void getAllUniformLocations()
+    {
+        location_diffuseColor = super.getUniformLocation("diffuse");
+    }
+
+    public void loadDiffuseColor(Vector3f diffuseColor)
+    {
+        super.load3DVector(location_diffuseColor, diffuseColor.x, diffuseColor.y, diffuseColor.z);
+    }
+}
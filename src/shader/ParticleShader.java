@@ -0,0 +1,34 @@
+package shader;
+
+import util.Vector3f;
+
+import java.io.FileNotFoundException;
+
+public class ParticleShader extends ShaderProgram
+{
+    private int location_particleSize;
+    private int location_diffuseColor;
+
+    public ParticleShader(String vertexShaderFileName, String fragmentShaderFileName) throws FileNotFoundException
+    {
+        super(vertexShaderFileName, fragmentShaderFileName);
+        getAllUniformLocations();
+    }
+
+    @Override
+    protected void getAllUniformLocations()
+    {
+        location_particleSize = super.getUniformLocation("particleSize");
+        location_diffuseColor = super.getUniformLocation("diffuse");
+    }
+
+    public void loadParticleSize(float particleSize)
+    {
+        super.loadFloat(location_particleSize, particleSize);
+    }
+
+    public void loadDiffuseColor(Vector3f diffuseColor)
+    {
+        super.load3DVector(location_diffuseColor, diffuseColor.x, diffuseColor.y, diffuseColor.z);
+    }
+}
@@ -0,0 +1,58 @@
+package shader;
+
+import util.Vector3f;
+
+import java.io.FileNotFoundException;
+
+/**
+ * Vertex-only program that advances the GPU particles by one timestep, capturing the new particles with transform
+ * feedback. Emitter parameters are uniforms, and like every uniform they are only uploaded when they change.
+ */
+public class ParticleUpdateShader extends ShaderProgram
+{
+    public static final int MAX_EMITTERS = 16;
+    private static final String[] FEEDBACK_VARYINGS = {"outPosition", "outVelocity", "outAge", "outEmitter"};
+
+    private int[] location_emitterPositions;
+    private int[] location_emitterVelocities;
+    private int location_deltaTime;
+    private int location_gravity;
+
+    public ParticleUpdateShader(String vertexShaderFileName) throws FileNotFoundException
+    {
+        super(vertexShaderFileName, null, FEEDBACK_VARYINGS);
+        getAllUniformLocations();
+    }
+
+    @Override
+    protected void getAllUniformLocations()
+    {
+        location_emitterPositions = new int[MAX_EMITTERS];
+        location_emitterVelocities = new int[MAX_EMITTERS];
+
+        for (int i = 0; i < MAX_EMITTERS; i++)
+        {
+            location_emitterPositions[i] = super.getUniformLocation("emitterPositions[" + i + "]");
+            location_emitterVelocities[i] = super.getUniformLocation("emitterVelocities[" + i + "]");
+        }
+
+        location_deltaTime = super.getUniformLocation("deltaTime");
+        location_gravity = super.getUniformLocation("gravity");
+    }
+
+    public void loadEmitter(int index, Vector3f position, Vector3f velocity, float gravityEffect, float lifeLength)
+    {
+        super.load4DVector(location_emitterPositions[index], position.x, position.y, position.z, lifeLength);
+        super.load4DVector(location_emitterVelocities[index], velocity.x, velocity.y, velocity.z, gravityEffect);
+    }
+
+    public void loadDeltaTime(float deltaTime)
+    {
+        super.loadFloat(location_deltaTime, deltaTime);
+    }
+
+    public void loadGravity(float gravity)
+    {
+        super.loadFloat(location_gravity, gravity);
+    }
+}
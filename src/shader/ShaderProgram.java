@@ -3,11 +3,15 @@ package shader;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import render.GLState;
 import util.Matrix4f;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
@@ -20,17 +24,45 @@ public abstract class ShaderProgram
     private int fragmentShaderId;
 
     private FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+    private final float[] matrixValues = new float[16];
+
+    // last value sent to each uniform location, indexed by location. Starts out as NaN so the first upload of
+    // every uniform goes through, and lets every later upload of an unchanged value be skipped.
+    private float[][] uniformValues = new float[0][];
 
     public ShaderProgram(String vertexShaderFileName, String fragmentShaderFileName) throws FileNotFoundException
+    {
+        this(vertexShaderFileName, fragmentShaderFileName, new String[0]);
+    }
+
+    /**
+     * @param fragmentShaderFileName null for a program that only runs the vertex stage, like a transform feedback
+     *                               pass with the rasterizer discarded
+     * @param feedbackVaryings       Vertex shader outputs transform feedback writes interleaved into one buffer, in
+     *                               this order
+     */
+    protected ShaderProgram(String vertexShaderFileName, String fragmentShaderFileName, String[] feedbackVaryings)
+            throws FileNotFoundException
     {
         programId = GL20.glCreateProgram();
         vertexShaderId = loadShader(vertexShaderFileName, GL20.GL_VERTEX_SHADER);
-        fragmentShaderId = loadShader(fragmentShaderFileName, GL20.GL_FRAGMENT_SHADER);
-
         GL20.glAttachShader(programId, vertexShaderId);
-        GL20.glAttachShader(programId, fragmentShaderId);
+
+        if (fragmentShaderFileName != null)
+        {
+            fragmentShaderId = loadShader(fragmentShaderFileName, GL20.GL_FRAGMENT_SHADER);
+            GL20.glAttachShader(programId, fragmentShaderId);
+        }
+
+        // the captured outputs have to be known before linking
+        if (feedbackVaryings.length > 0)
+        {
+            GL30.glTransformFeedbackVaryings(programId, feedbackVaryings, GL30.GL_INTERLEAVED_ATTRIBS);
+        }
+
         GL20.glLinkProgram(programId);
         GL20.glValidateProgram(programId);
+        bindUniformBlock(CameraBlock.BLOCK_NAME, CameraBlock.BINDING);
     }
 
     protected abstract void getAllUniformLocations();
@@ -40,25 +72,107 @@ public abstract class ShaderProgram
         return GL20.glGetUniformLocation(programId, varName);
     }
 
+    protected void bindUniformBlock(String blockName, int bindingPoint)
+    {
+        int blockIndex = GL31.glGetUniformBlockIndex(programId, blockName);
+
+        if (blockIndex != GL31.GL_INVALID_INDEX)
+        {
+            GL31.glUniformBlockBinding(programId, blockIndex, bindingPoint);
+        }
+    }
+
     protected void loadFloat(int location, float value)
     {
+        float[] values = getUniformValues(location, 1);
+
+        if (values == null || values[0] == value)
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        values[0] = value;
         GL20.glUniform1f(location, value);
+        GLState.countIssued();
     }
 
     protected void load2DVector(int location, float firstValue, float secondValue)
     {
+        float[] values = getUniformValues(location, 2);
+
+        if (values == null || (values[0] == firstValue && values[1] == secondValue))
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        values[0] = firstValue;
+        values[1] = secondValue;
         GL20.glUniform2f(location, firstValue, secondValue);
+        GLState.countIssued();
     }
 
     protected void load3DVector(int location, float firstValue, float secondValue, float thirdValue)
     {
+        float[] values = getUniformValues(location, 3);
+
+        if (values == null || (values[0] == firstValue && values[1] == secondValue && values[2] == thirdValue))
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        values[0] = firstValue;
+        values[1] = secondValue;
+        values[2] = thirdValue;
         GL20.glUniform3f(location, firstValue, secondValue, thirdValue);
+        GLState.countIssued();
+    }
+
+    protected void load4DVector(int location, float firstValue, float secondValue, float thirdValue, float fourthValue)
+    {
+        float[] values = getUniformValues(location, 4);
+
+        if (values == null || (values[0] == firstValue && values[1] == secondValue && values[2] == thirdValue
+                && values[3] == fourthValue))
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        values[0] = firstValue;
+        values[1] = secondValue;
+        values[2] = thirdValue;
+        values[3] = fourthValue;
+        GL20.glUniform4f(location, firstValue, secondValue, thirdValue, fourthValue);
+        GLState.countIssued();
     }
 
     protected void loadMatrix(int location, Matrix4f mat)
     {
-        mat.toBuffer(matrixBuffer);
+        float[] values = getUniformValues(location, 16);
+
+        if (values == null)
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        mat.toArray(matrixValues, 0);
+
+        if (equal(values, matrixValues))
+        {
+            GLState.countSkipped();
+            return;
+        }
+
+        System.arraycopy(matrixValues, 0, values, 0, 16);
+        matrixBuffer.clear();
+        matrixBuffer.put(matrixValues);
+        matrixBuffer.flip();
         GL20.glUniformMatrix4fv(location, false, matrixBuffer);
+        GLState.countIssued();
     }
 
     protected void loadBoolean(int location, boolean bool)
@@ -70,7 +184,45 @@ public abstract class ShaderProgram
             value = 1.0f;
         }
 
-        GL20.glUniform1f(location, value);
+        loadFloat(location, value);
+    }
+
+    // null for uniforms the linker removed (location -1), setting those would do nothing anyway
+    private float[] getUniformValues(int location, int size)
+    {
+        if (location < 0)
+        {
+            return null;
+        }
+
+        if (location >= uniformValues.length)
+        {
+            uniformValues = Arrays.copyOf(uniformValues, location + 1);
+        }
+
+        float[] values = uniformValues[location];
+
+        if (values == null)
+        {
+            values = new float[size];
+            Arrays.fill(values, Float.NaN);
+            uniformValues[location] = values;
+        }
+
+        return values;
+    }
+
+    private static boolean equal(float[] first, float[] second)
+    {
+        for (int i = 0; i < first.length; i++)
+        {
+            if (first[i] != second[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     private int loadShader(String fileName, int shaderType) throws FileNotFoundException
@@ -106,21 +258,26 @@ public abstract class ShaderProgram
 
     public void start()
     {
-        GL20.glUseProgram(programId);
+        GLState.useProgram(programId);
     }
 
     public void stop()
     {
-        GL20.glUseProgram(0);
+        GLState.useProgram(0);
     }
 
     public void cleanUp()
     {
         stop();
         GL20.glDetachShader(programId, vertexShaderId);
-        GL20.glDetachShader(programId, fragmentShaderId);
         GL20.glDeleteShader(vertexShaderId);
-        GL20.glDeleteShader(fragmentShaderId);
+
+        if (fragmentShaderId != 0)
+        {
+            GL20.glDetachShader(programId, fragmentShaderId);
+            GL20.glDeleteShader(fragmentShaderId);
+        }
+
         GL20.glDeleteProgram(programId);
     }
 
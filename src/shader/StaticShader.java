@@ -1,6 +1,5 @@
 package shader;
 
-import camera.Camera;
 import util.Matrix4f;
 import util.Vector3f;
 
@@ -12,8 +11,6 @@ import java.io.FileNotFoundException;
 public class StaticShader extends ShaderProgram
 {
     private int location_transformationMatrix;
-    private int location_projectionMatrix;
-    private int location_viewMatrix;
     private int location_diffuseColor;
     private int location_selectionEffect;
     private int location_alpha;
@@ -28,8 +25,6 @@ public class StaticShader extends ShaderProgram
     protected void getAllUniformLocations()
     {
         location_transformationMatrix = super.getUniformLocation("transformationMatrix");
-        location_projectionMatrix = super.getUniformLocation("projectionMatrix");
-        location_viewMatrix = super.getUniformLocation("viewMatrix");
         location_diffuseColor = super.getUniformLocation("diffuse");
         location_selectionEffect = super.getUniformLocation("selectionEffect");
         location_alpha = super.getUniformLocation("alpha");
@@ -40,16 +35,6 @@ public class StaticShader extends ShaderProgram
         super.loadMatrix(location_transformationMatrix, matrix);
     }
 
-    public void loadProjectionMatrix(Matrix4f matrix)
-    {
-        super.loadMatrix(location_projectionMatrix, matrix);
-    }
-
-    public void loadViewMatrix(Camera camera)
-    {
-        super.loadMatrix(location_viewMatrix, camera.getViewMatrix());
-    }
-
     public void loadDiffuseColor(Vector3f diffuseColor)
     {
         super.load3DVector(location_diffuseColor, diffuseColor.x, diffuseColor.y, diffuseColor.z);
@@ -0,0 +1,67 @@
+package spatial;
+
+import java.util.Arrays;
+
+/**
+ * Axis aligned boxes stored as a structure of arrays, one array per bound, so that a distance kernel can stream
+ * through every box of the batch with contiguous loads.
+ */
+public class AabbBatch
+{
+    float[] minX = new float[16];
+    float[] minY = new float[16];
+    float[] minZ = new float[16];
+    float[] maxX = new float[16];
+    float[] maxY = new float[16];
+    float[] maxZ = new float[16];
+    private int size;
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * @return The index of the new box
+     */
+    public int add(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        if (size == this.minX.length)
+        {
+            int length = size * 2;
+            this.minX = Arrays.copyOf(this.minX, length);
+            this.minY = Arrays.copyOf(this.minY, length);
+            this.minZ = Arrays.copyOf(this.minZ, length);
+            this.maxX = Arrays.copyOf(this.maxX, length);
+            this.maxY = Arrays.copyOf(this.maxY, length);
+            this.maxZ = Arrays.copyOf(this.maxZ, length);
+        }
+
+        set(size, minX, minY, minZ, maxX, maxY, maxZ);
+        return size++;
+    }
+
+    public void set(int index, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        this.minX[index] = minX;
+        this.minY[index] = minY;
+        this.minZ[index] = minZ;
+        this.maxX[index] = maxX;
+        this.maxY[index] = maxY;
+        this.maxZ[index] = maxZ;
+    }
+
+    /**
+     * Appends a copy of a box from another batch.
+     */
+    public int add(AabbBatch other, int index)
+    {
+        return add(other.minX[index], other.minY[index], other.minZ[index],
+                other.maxX[index], other.maxY[index], other.maxZ[index]);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+}
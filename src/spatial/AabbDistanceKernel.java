@@ -0,0 +1,14 @@
+package spatial;
+
+/**
+ * Computes the distance from one point to every box of a batch. Use {@link AabbDistanceKernels#get()} for the
+ * fastest implementation the running platform supports.
+ */
+public interface AabbDistanceKernel
+{
+    /**
+     * @param distances Receives the distance to box i at index i, 0 for boxes that contain the point. Must hold at
+     *                  least {@link AabbBatch#size()} values.
+     */
+    void computeDistances(AabbBatch batch, float x, float y, float z, float[] distances);
+}
@@ -0,0 +1,44 @@
+package spatial;
+
+/**
+ * Picks the distance kernel once: the vector API one when the jdk.incubator.vector module has been added to the
+ * runtime (--add-modules jdk.incubator.vector) and the optional src-vector source root was compiled onto the class
+ * path, the scalar one otherwise.
+ */
+public class AabbDistanceKernels
+{
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "spatial.VectorAabbDistanceKernel";
+
+    private static final AabbDistanceKernel INSTANCE = create();
+
+    public static AabbDistanceKernel get()
+    {
+        return INSTANCE;
+    }
+
+    public static boolean isVectorized()
+    {
+        return !(INSTANCE instanceof ScalarAabbDistanceKernel);
+    }
+
+    private static AabbDistanceKernel create()
+    {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent())
+        {
+            try
+            {
+                // looked up by name so that the vector classes are never linked without the module
+                return (AabbDistanceKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e)
+            {
+                // src-vector was not compiled in, the scalar kernel is the intended default
+            } catch (ReflectiveOperationException | LinkageError e)
+            {
+                System.err.println("Vector API unavailable, using scalar distance kernel: " + e);
+            }
+        }
+
+        return new ScalarAabbDistanceKernel();
+    }
+}
@@ -0,0 +1,629 @@
+package spatial;
+
+import java.util.Arrays;
+
+/**
+ * Bounding volume hierarchy over axis aligned boxes, built with the binned surface area heuristic and stored
+ * flattened in primitive arrays. Primitives are added with {@link #add}, after which {@link #build()} creates the
+ * tree. Primitives that move afterwards get new bounds through {@link #setBounds} and a {@link #refit()}, which
+ * keeps the topology and only grows or shrinks the node bounds, so it suits the few animated parts of an
+ * otherwise static scene.
+ * <p>
+ * Boxes are stored as six floats: minimum x, y and z followed by maximum x, y and z. Nodes are laid out so that
+ * both children of a node sit next to each other and after their parent. Building and querying use explicit stacks
+ * instead of recursion, so even a degenerate tree as deep as it has primitives cannot overflow the thread's stack.
+ * Not thread safe, build, refit and query from one thread.
+ */
+public class BoundingVolumeHierarchy
+{
+    private static final int BINS = 12;
+    private static final float TRAVERSAL_COST = 1.0f;
+
+    private float[] primitiveBounds = new float[16 * 6];
+    private int primitiveCount;
+    private int[] primitiveOrder = new int[0];
+    private float[] centroids = new float[0];
+
+    private float[] nodeBounds = new float[0];
+    // for a leaf the position of its first primitive in primitiveOrder, for an inner node its left child
+    private int[] nodeStart = new int[0];
+    // number of primitives in a leaf, 0 for inner nodes
+    private int[] nodePrimitives = new int[0];
+    private int nodesUsed;
+
+    private int[] stack = new int[64];
+
+    // scratch for the binned split search
+    private final float[] binBounds = new float[BINS * 6];
+    private final int[] binCounts = new int[BINS];
+    private final float[] rightAreas = new float[BINS];
+    private final int[] rightCounts = new int[BINS];
+    private final float[] box = new float[6];
+
+    /**
+     * @return The id of the new primitive, ids are handed out in order starting at 0
+     */
+    public int add(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        if ((primitiveCount + 1) * 6 > primitiveBounds.length)
+        {
+            primitiveBounds = Arrays.copyOf(primitiveBounds, primitiveBounds.length * 2);
+        }
+
+        writeBounds(primitiveCount, minX, minY, minZ, maxX, maxY, maxZ);
+        return primitiveCount++;
+    }
+
+    /**
+     * Changes the bounds of a primitive. The nodes above it only follow after the next {@link #refit()}.
+     */
+    public void setBounds(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        writeBounds(primitive, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    private void writeBounds(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        int offset = primitive * 6;
+        primitiveBounds[offset] = minX;
+        primitiveBounds[offset + 1] = minY;
+        primitiveBounds[offset + 2] = minZ;
+        primitiveBounds[offset + 3] = maxX;
+        primitiveBounds[offset + 4] = maxY;
+        primitiveBounds[offset + 5] = maxZ;
+    }
+
+    public int size()
+    {
+        return primitiveCount;
+    }
+
+    /**
+     * Builds the tree over all primitives added so far, replacing any earlier tree.
+     */
+    public void build()
+    {
+        primitiveOrder = new int[primitiveCount];
+        centroids = new float[primitiveCount * 3];
+
+        for (int i = 0; i < primitiveCount; i++)
+        {
+            primitiveOrder[i] = i;
+            centroids[i * 3] = (primitiveBounds[i * 6] + primitiveBounds[i * 6 + 3]) * 0.5f;
+            centroids[i * 3 + 1] = (primitiveBounds[i * 6 + 1] + primitiveBounds[i * 6 + 4]) * 0.5f;
+            centroids[i * 3 + 2] = (primitiveBounds[i * 6 + 2] + primitiveBounds[i * 6 + 5]) * 0.5f;
+        }
+
+        int maximumNodes = Math.max(1, 2 * primitiveCount - 1);
+        nodeBounds = new float[maximumNodes * 6];
+        nodeStart = new int[maximumNodes];
+        nodePrimitives = new int[maximumNodes];
+
+        nodesUsed = 0;
+
+        if (primitiveCount > 0)
+        {
+            nodesUsed = 1;
+            nodeStart[0] = 0;
+            nodePrimitives[0] = primitiveCount;
+            updateLeafBounds(0);
+
+            int stackSize = push(0, 0);
+            while (stackSize > 0)
+            {
+                int node = stack[--stackSize];
+                stackSize = subdivide(node, stackSize);
+            }
+        }
+
+        // only needed while building
+        centroids = new float[0];
+    }
+
+    // splits the node if that pays off and pushes its children onto the stack, returns the new stack size
+    private int subdivide(int node, int stackSize)
+    {
+        int start = nodeStart[node];
+        int count = nodePrimitives[node];
+
+        if (count <= 1)
+        {
+            return stackSize;
+        }
+
+        float centroidMinX = Float.POSITIVE_INFINITY, centroidMinY = Float.POSITIVE_INFINITY, centroidMinZ = Float.POSITIVE_INFINITY;
+        float centroidMaxX = Float.NEGATIVE_INFINITY, centroidMaxY = Float.NEGATIVE_INFINITY, centroidMaxZ = Float.NEGATIVE_INFINITY;
+
+        for (int i = start; i < start + count; i++)
+        {
+            int primitive = primitiveOrder[i];
+            centroidMinX = Math.min(centroidMinX, centroids[primitive * 3]);
+            centroidMinY = Math.min(centroidMinY, centroids[primitive * 3 + 1]);
+            centroidMinZ = Math.min(centroidMinZ, centroids[primitive * 3 + 2]);
+            centroidMaxX = Math.max(centroidMaxX, centroids[primitive * 3]);
+            centroidMaxY = Math.max(centroidMaxY, centroids[primitive * 3 + 1]);
+            centroidMaxZ = Math.max(centroidMaxZ, centroids[primitive * 3 + 2]);
+        }
+
+        float[] centroidMin = {centroidMinX, centroidMinY, centroidMinZ};
+        float[] centroidMax = {centroidMaxX, centroidMaxY, centroidMaxZ};
+
+        int bestAxis = -1;
+        int bestSplit = 0;
+        float bestCost = Float.POSITIVE_INFINITY;
+
+        for (int axis = 0; axis < 3; axis++)
+        {
+            float extent = centroidMax[axis] - centroidMin[axis];
+
+            if (extent <= 0.0f)
+            {
+                continue;
+            }
+
+            fillBins(start, count, axis, centroidMin[axis], BINS / extent);
+
+            // sweep from the right to know the cost of every right side, then from the left to pick the split
+            resetBox();
+            int rightCount = 0;
+            for (int bin = BINS - 1; bin > 0; bin--)
+            {
+                rightCount += binCounts[bin];
+                growBox(binBounds, bin * 6);
+                rightCounts[bin] = rightCount;
+                rightAreas[bin] = rightCount == 0 ? 0.0f : halfArea(box, 0);
+            }
+
+            resetBox();
+            int leftCount = 0;
+            for (int split = 1; split < BINS; split++)
+            {
+                leftCount += binCounts[split - 1];
+                growBox(binBounds, (split - 1) * 6);
+
+                if (leftCount == 0 || rightCounts[split] == 0)
+                {
+                    continue;
+                }
+
+                float cost = leftCount * halfArea(box, 0) + rightCounts[split] * rightAreas[split];
+
+                if (cost < bestCost)
+                {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestSplit = split;
+                }
+            }
+        }
+
+        float nodeArea = halfArea(nodeBounds, node * 6);
+
+        // splitting has to beat testing every primitive of the node directly
+        if (bestAxis < 0 || (nodeArea > 0.0f && TRAVERSAL_COST + bestCost / nodeArea >= count))
+        {
+            return stackSize;
+        }
+
+        float scale = BINS / (centroidMax[bestAxis] - centroidMin[bestAxis]);
+        int i = start;
+        int j = start + count - 1;
+
+        while (i <= j)
+        {
+            if (binOf(primitiveOrder[i], bestAxis, centroidMin[bestAxis], scale) < bestSplit)
+            {
+                i++;
+            } else
+            {
+                int swap = primitiveOrder[i];
+                primitiveOrder[i] = primitiveOrder[j];
+                primitiveOrder[j--] = swap;
+            }
+        }
+
+        int leftCount = i - start;
+
+        if (leftCount == 0 || leftCount == count)
+        {
+            return stackSize;
+        }
+
+        int left = nodesUsed;
+        nodesUsed += 2;
+
+        nodeStart[left] = start;
+        nodePrimitives[left] = leftCount;
+        nodeStart[left + 1] = i;
+        nodePrimitives[left + 1] = count - leftCount;
+
+        nodeStart[node] = left;
+        nodePrimitives[node] = 0;
+
+        updateLeafBounds(left);
+        updateLeafBounds(left + 1);
+        stackSize = push(stackSize, left + 1);
+        return push(stackSize, left);
+    }
+
+    private void fillBins(int start, int count, int axis, float minimum, float scale)
+    {
+        Arrays.fill(binCounts, 0);
+
+        for (int bin = 0; bin < BINS; bin++)
+        {
+            setEmpty(binBounds, bin * 6);
+        }
+
+        for (int i = start; i < start + count; i++)
+        {
+            int primitive = primitiveOrder[i];
+            int bin = binOf(primitive, axis, minimum, scale);
+            binCounts[bin]++;
+            union(binBounds, bin * 6, primitiveBounds, primitive * 6);
+        }
+    }
+
+    private int binOf(int primitive, int axis, float minimum, float scale)
+    {
+        return Math.min(BINS - 1, (int) ((centroids[primitive * 3 + axis] - minimum) * scale));
+    }
+
+    /**
+     * Recomputes the bounds of every node from the current primitive bounds, keeping the tree's structure.
+     */
+    public void refit()
+    {
+        // children always come after their parent, so walking backwards visits them first
+        for (int node = nodesUsed - 1; node >= 0; node--)
+        {
+            if (nodePrimitives[node] > 0)
+            {
+                updateLeafBounds(node);
+            } else
+            {
+                int left = nodeStart[node];
+                setEmpty(nodeBounds, node * 6);
+                union(nodeBounds, node * 6, nodeBounds, left * 6);
+                union(nodeBounds, node * 6, nodeBounds, (left + 1) * 6);
+            }
+        }
+    }
+
+    private void updateLeafBounds(int node)
+    {
+        setEmpty(nodeBounds, node * 6);
+
+        for (int i = nodeStart[node]; i < nodeStart[node] + nodePrimitives[node]; i++)
+        {
+            union(nodeBounds, node * 6, primitiveBounds, primitiveOrder[i] * 6);
+        }
+    }
+
+    /**
+     * Adds every primitive whose box overlaps the given box to the results, without clearing them first.
+     */
+    public void queryOverlap(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                             PrimitiveList results)
+    {
+        if (nodesUsed == 0)
+        {
+            return;
+        }
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            if (!overlaps(nodeBounds, node * 6, minX, minY, minZ, maxX, maxY, maxZ))
+            {
+                continue;
+            }
+
+            if (nodePrimitives[node] > 0)
+            {
+                for (int i = nodeStart[node]; i < nodeStart[node] + nodePrimitives[node]; i++)
+                {
+                    int primitive = primitiveOrder[i];
+
+                    if (overlaps(primitiveBounds, primitive * 6, minX, minY, minZ, maxX, maxY, maxZ))
+                    {
+                        results.add(primitive);
+                    }
+                }
+            } else
+            {
+                stackSize = push(stackSize, nodeStart[node]);
+                stackSize = push(stackSize, nodeStart[node] + 1);
+            }
+        }
+    }
+
+    /**
+     * Adds every primitive whose box is at least partly inside the frustum to the results, without clearing them
+     * first.
+     *
+     * @param planes The frustum's planes as (a, b, c, d) each, normals pointing inwards, like render.Frustum
+     *               keeps them
+     */
+    public void queryFrustum(float[] planes, PrimitiveList results)
+    {
+        if (nodesUsed == 0)
+        {
+            return;
+        }
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            if (!intersects(planes, nodeBounds, node * 6))
+            {
+                continue;
+            }
+
+            if (nodePrimitives[node] > 0)
+            {
+                for (int i = nodeStart[node]; i < nodeStart[node] + nodePrimitives[node]; i++)
+                {
+                    int primitive = primitiveOrder[i];
+
+                    if (intersects(planes, primitiveBounds, primitive * 6))
+                    {
+                        results.add(primitive);
+                    }
+                }
+            } else
+            {
+                stackSize = push(stackSize, nodeStart[node]);
+                stackSize = push(stackSize, nodeStart[node] + 1);
+            }
+        }
+    }
+
+    /**
+     * @return The primitive closest to the point, or -1 when none is within the maximum distance
+     */
+    public int findNearest(float x, float y, float z, float maximumDistance)
+    {
+        if (nodesUsed == 0)
+        {
+            return -1;
+        }
+
+        int nearest = -1;
+        float nearestSquared = maximumDistance * maximumDistance;
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            if (distanceSquared(nodeBounds, node * 6, x, y, z) > nearestSquared)
+            {
+                continue;
+            }
+
+            if (nodePrimitives[node] > 0)
+            {
+                for (int i = nodeStart[node]; i < nodeStart[node] + nodePrimitives[node]; i++)
+                {
+                    int primitive = primitiveOrder[i];
+                    float distance = distanceSquared(primitiveBounds, primitive * 6, x, y, z);
+
+                    if (distance <= nearestSquared)
+                    {
+                        nearestSquared = distance;
+                        nearest = primitive;
+                    }
+                }
+            } else
+            {
+                // the nearer child goes on top so that it can tighten the search before the other one is visited
+                int left = nodeStart[node];
+                int right = left + 1;
+
+                if (distanceSquared(nodeBounds, left * 6, x, y, z) < distanceSquared(nodeBounds, right * 6, x, y, z))
+                {
+                    stackSize = push(stackSize, right);
+                    stackSize = push(stackSize, left);
+                } else
+                {
+                    stackSize = push(stackSize, left);
+                    stackSize = push(stackSize, right);
+                }
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * @return The first primitive hit by the ray, or -1 when it hits nothing within the maximum distance
+     */
+    public int raycast(float originX, float originY, float originZ, float directionX, float directionY,
+                       float directionZ, float maximumDistance)
+    {
+        if (nodesUsed == 0)
+        {
+            return -1;
+        }
+
+        float inverseX = 1.0f / directionX;
+        float inverseY = 1.0f / directionY;
+        float inverseZ = 1.0f / directionZ;
+
+        int hit = -1;
+        float hitDistance = maximumDistance;
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        while (stackSize > 0)
+        {
+            int node = stack[--stackSize];
+
+            if (slab(nodeBounds, node * 6, originX, originY, originZ, inverseX, inverseY, inverseZ) > hitDistance)
+            {
+                continue;
+            }
+
+            if (nodePrimitives[node] > 0)
+            {
+                for (int i = nodeStart[node]; i < nodeStart[node] + nodePrimitives[node]; i++)
+                {
+                    int primitive = primitiveOrder[i];
+                    float distance = slab(primitiveBounds, primitive * 6, originX, originY, originZ, inverseX, inverseY, inverseZ);
+
+                    if (distance <= hitDistance)
+                    {
+                        hitDistance = distance;
+                        hit = primitive;
+                    }
+                }
+            } else
+            {
+                stackSize = push(stackSize, nodeStart[node]);
+                stackSize = push(stackSize, nodeStart[node] + 1);
+            }
+        }
+
+        return hit;
+    }
+
+    /**
+     * @return The distance from the point to the primitive's box, 0 when the point is inside it
+     */
+    public float distance(int primitive, float x, float y, float z)
+    {
+        return (float) Math.sqrt(distanceSquared(primitiveBounds, primitive * 6, x, y, z));
+    }
+
+    /**
+     * @return The distance along the ray to the primitive's box, positive infinity when the ray misses it
+     */
+    public float intersectRay(int primitive, float originX, float originY, float originZ, float directionX,
+                              float directionY, float directionZ)
+    {
+        return slab(primitiveBounds, primitive * 6, originX, originY, originZ,
+                1.0f / directionX, 1.0f / directionY, 1.0f / directionZ);
+    }
+
+    private int push(int stackSize, int node)
+    {
+        if (stackSize == stack.length)
+        {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+
+        stack[stackSize] = node;
+        return stackSize + 1;
+    }
+
+    private static boolean overlaps(float[] bounds, int offset, float minX, float minY, float minZ, float maxX,
+                                    float maxY, float maxZ)
+    {
+        return bounds[offset] <= maxX && bounds[offset + 3] >= minX
+                && bounds[offset + 1] <= maxY && bounds[offset + 4] >= minY
+                && bounds[offset + 2] <= maxZ && bounds[offset + 5] >= minZ;
+    }
+
+    // false only when the box lies completely outside of one of the planes, tested at its corner furthest along
+    // the plane's normal
+    private static boolean intersects(float[] planes, float[] bounds, int offset)
+    {
+        for (int i = 0; i < planes.length; i += 4)
+        {
+            float x = planes[i] > 0.0f ? bounds[offset + 3] : bounds[offset];
+            float y = planes[i + 1] > 0.0f ? bounds[offset + 4] : bounds[offset + 1];
+            float z = planes[i + 2] > 0.0f ? bounds[offset + 5] : bounds[offset + 2];
+
+            if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < 0.0f)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static float distanceSquared(float[] bounds, int offset, float x, float y, float z)
+    {
+        float dx = Math.max(Math.max(bounds[offset] - x, 0.0f), x - bounds[offset + 3]);
+        float dy = Math.max(Math.max(bounds[offset + 1] - y, 0.0f), y - bounds[offset + 4]);
+        float dz = Math.max(Math.max(bounds[offset + 2] - z, 0.0f), z - bounds[offset + 5]);
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // distance at which the ray enters the box, positive infinity when it misses
+    private static float slab(float[] bounds, int offset, float originX, float originY, float originZ,
+                              float inverseX, float inverseY, float inverseZ)
+    {
+        float x1 = (bounds[offset] - originX) * inverseX;
+        float x2 = (bounds[offset + 3] - originX) * inverseX;
+        float near = Math.min(x1, x2);
+        float far = Math.max(x1, x2);
+
+        float y1 = (bounds[offset + 1] - originY) * inverseY;
+        float y2 = (bounds[offset + 4] - originY) * inverseY;
+        near = Math.max(near, Math.min(y1, y2));
+        far = Math.min(far, Math.max(y1, y2));
+
+        float z1 = (bounds[offset + 2] - originZ) * inverseZ;
+        float z2 = (bounds[offset + 5] - originZ) * inverseZ;
+        near = Math.max(near, Math.min(z1, z2));
+        far = Math.min(far, Math.max(z1, z2));
+
+        if (far < Math.max(near, 0.0f))
+        {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        return Math.max(near, 0.0f);
+    }
+
+    private void resetBox()
+    {
+        setEmpty(box, 0);
+    }
+
+    private void growBox(float[] bounds, int offset)
+    {
+        union(box, 0, bounds, offset);
+    }
+
+    private static void setEmpty(float[] bounds, int offset)
+    {
+        bounds[offset] = bounds[offset + 1] = bounds[offset + 2] = Float.POSITIVE_INFINITY;
+        bounds[offset + 3] = bounds[offset + 4] = bounds[offset + 5] = Float.NEGATIVE_INFINITY;
+    }
+
+    private static void union(float[] dst, int dstOffset, float[] bounds, int offset)
+    {
+        dst[dstOffset] = Math.min(dst[dstOffset], bounds[offset]);
+        dst[dstOffset + 1] = Math.min(dst[dstOffset + 1], bounds[offset + 1]);
+        dst[dstOffset + 2] = Math.min(dst[dstOffset + 2], bounds[offset + 2]);
+        dst[dstOffset + 3] = Math.max(dst[dstOffset + 3], bounds[offset + 3]);
+        dst[dstOffset + 4] = Math.max(dst[dstOffset + 4], bounds[offset + 4]);
+        dst[dstOffset + 5] = Math.max(dst[dstOffset + 5], bounds[offset + 5]);
+    }
+
+    // half of the surface area, enough for comparing costs
+    private static float halfArea(float[] bounds, int offset)
+    {
+        float dx = bounds[offset + 3] - bounds[offset];
+        float dy = bounds[offset + 4] - bounds[offset + 1];
+        float dz = bounds[offset + 5] - bounds[offset + 2];
+
+        return dx * dy + dy * dz + dz * dx;
+    }
+}
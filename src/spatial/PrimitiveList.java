@@ -0,0 +1,38 @@
+package spatial;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ids that spatial queries write their results into, so a query does not allocate
+ * once the list has grown to the largest result seen.
+ */
+public class PrimitiveList
+{
+    private int[] ids = new int[16];
+    private int size;
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    public void add(int id)
+    {
+        if (size == ids.length)
+        {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+
+        ids[size++] = id;
+    }
+
+    public int get(int index)
+    {
+        return ids[index];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+}
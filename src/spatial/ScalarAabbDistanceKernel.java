@@ -0,0 +1,25 @@
+package spatial;
+
+/**
+ * Plain loop over the batch, used where the vector API is not available.
+ */
+class ScalarAabbDistanceKernel implements AabbDistanceKernel
+{
+    @Override
+    public void computeDistances(AabbBatch batch, float x, float y, float z, float[] distances)
+    {
+        computeDistances(batch, x, y, z, distances, 0);
+    }
+
+    static void computeDistances(AabbBatch batch, float x, float y, float z, float[] distances, int start)
+    {
+        for (int i = start; i < batch.size(); i++)
+        {
+            float dx = Math.max(Math.max(batch.minX[i] - x, x - batch.maxX[i]), 0.0f);
+            float dy = Math.max(Math.max(batch.minY[i] - y, y - batch.maxY[i]), 0.0f);
+            float dz = Math.max(Math.max(batch.minZ[i] - z, z - batch.maxZ[i]), 0.0f);
+
+            distances[i] = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+}
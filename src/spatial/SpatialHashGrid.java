@@ -0,0 +1,338 @@
+package spatial;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over axis aligned boxes, hashed so that only occupied cells take up memory. Each primitive is
+ * entered into every cell its box touches, and a query only visits the cells around the query box, so its cost
+ * depends on how crowded that neighbourhood is rather than on the size of the scene.
+ * <p>
+ * Moving a primitive with {@link #setBounds} only touches the grid when the range of cells it covers changes.
+ * Entries are kept in pooled linked lists and the table uses open addressing, so nothing is allocated once the
+ * arrays have grown to the scene. Not thread safe.
+ */
+public class SpatialHashGrid
+{
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private final float cellSize;
+    private final float inverseCellSize;
+
+    // per primitive: box as min x, y, z, max x, y, z and covered cells as min x, y, z, max x, y, z
+    private float[] primitiveBounds = new float[16 * 6];
+    private int[] primitiveCells = new int[16 * 6];
+    private int primitiveCount;
+
+    // open addressing table from cell key to the first entry of the cell's list
+    private long[] keys;
+    private int[] heads;
+    private int usedSlots;
+
+    // pooled list entries
+    private int[] entryPrimitives = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount;
+    private int freeEntry = -1;
+
+    // stamps that keep a primitive spanning several cells from being reported twice by one query
+    private int[] queryStamps = new int[16];
+    private int queryStamp;
+
+    public SpatialHashGrid(float cellSize)
+    {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0f / cellSize;
+        this.keys = new long[64];
+        this.heads = new int[64];
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    /**
+     * @return The id of the new primitive, ids are handed out in order starting at 0
+     */
+    public int add(float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        int primitive = primitiveCount++;
+
+        if (primitiveCount * 6 > primitiveBounds.length)
+        {
+            primitiveBounds = Arrays.copyOf(primitiveBounds, primitiveBounds.length * 2);
+            primitiveCells = Arrays.copyOf(primitiveCells, primitiveCells.length * 2);
+            queryStamps = Arrays.copyOf(queryStamps, queryStamps.length * 2);
+        }
+
+        writeBounds(primitive, minX, minY, minZ, maxX, maxY, maxZ);
+        writeCells(primitive);
+        insert(primitive);
+        return primitive;
+    }
+
+    /**
+     * Moves a primitive, re-entering it into the grid only when it now covers a different range of cells.
+     */
+    public void setBounds(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        writeBounds(primitive, minX, minY, minZ, maxX, maxY, maxZ);
+
+        int offset = primitive * 6;
+        if (primitiveCells[offset] == cell(minX) && primitiveCells[offset + 1] == cell(minY)
+                && primitiveCells[offset + 2] == cell(minZ) && primitiveCells[offset + 3] == cell(maxX)
+                && primitiveCells[offset + 4] == cell(maxY) && primitiveCells[offset + 5] == cell(maxZ))
+        {
+            return;
+        }
+
+        remove(primitive);
+        writeCells(primitive);
+        insert(primitive);
+    }
+
+    public int size()
+    {
+        return primitiveCount;
+    }
+
+    /**
+     * Adds every primitive whose box overlaps the given box to the results, without clearing them first.
+     */
+    public void queryOverlap(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                             PrimitiveList results)
+    {
+        nextQueryStamp();
+
+        int minCellX = cell(minX), minCellY = cell(minY), minCellZ = cell(minZ);
+        int maxCellX = cell(maxX), maxCellY = cell(maxY), maxCellZ = cell(maxZ);
+
+        for (int x = minCellX; x <= maxCellX; x++)
+        {
+            for (int y = minCellY; y <= maxCellY; y++)
+            {
+                for (int z = minCellZ; z <= maxCellZ; z++)
+                {
+                    int slot = findSlot(key(x, y, z));
+
+                    if (keys[slot] == EMPTY_KEY)
+                    {
+                        continue;
+                    }
+
+                    for (int entry = heads[slot]; entry >= 0; entry = entryNext[entry])
+                    {
+                        int primitive = entryPrimitives[entry];
+
+                        if (queryStamps[primitive] == queryStamp)
+                        {
+                            continue;
+                        }
+
+                        queryStamps[primitive] = queryStamp;
+
+                        if (overlaps(primitive, minX, minY, minZ, maxX, maxY, maxZ))
+                        {
+                            results.add(primitive);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void nextQueryStamp()
+    {
+        if (++queryStamp == 0)
+        {
+            Arrays.fill(queryStamps, 0);
+            queryStamp = 1;
+        }
+    }
+
+    private boolean overlaps(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        int offset = primitive * 6;
+
+        return primitiveBounds[offset] <= maxX && primitiveBounds[offset + 3] >= minX
+                && primitiveBounds[offset + 1] <= maxY && primitiveBounds[offset + 4] >= minY
+                && primitiveBounds[offset + 2] <= maxZ && primitiveBounds[offset + 5] >= minZ;
+    }
+
+    private void writeBounds(int primitive, float minX, float minY, float minZ, float maxX, float maxY, float maxZ)
+    {
+        int offset = primitive * 6;
+        primitiveBounds[offset] = minX;
+        primitiveBounds[offset + 1] = minY;
+        primitiveBounds[offset + 2] = minZ;
+        primitiveBounds[offset + 3] = maxX;
+        primitiveBounds[offset + 4] = maxY;
+        primitiveBounds[offset + 5] = maxZ;
+    }
+
+    private void writeCells(int primitive)
+    {
+        int offset = primitive * 6;
+
+        for (int i = 0; i < 6; i++)
+        {
+            primitiveCells[offset + i] = cell(primitiveBounds[offset + i]);
+        }
+    }
+
+    private void insert(int primitive)
+    {
+        int offset = primitive * 6;
+
+        for (int x = primitiveCells[offset]; x <= primitiveCells[offset + 3]; x++)
+        {
+            for (int y = primitiveCells[offset + 1]; y <= primitiveCells[offset + 4]; y++)
+            {
+                for (int z = primitiveCells[offset + 2]; z <= primitiveCells[offset + 5]; z++)
+                {
+                    int slot = getOrCreateSlot(key(x, y, z));
+                    int entry = allocateEntry();
+                    entryPrimitives[entry] = primitive;
+                    entryNext[entry] = heads[slot];
+                    heads[slot] = entry;
+                }
+            }
+        }
+    }
+
+    private void remove(int primitive)
+    {
+        int offset = primitive * 6;
+
+        for (int x = primitiveCells[offset]; x <= primitiveCells[offset + 3]; x++)
+        {
+            for (int y = primitiveCells[offset + 1]; y <= primitiveCells[offset + 4]; y++)
+            {
+                for (int z = primitiveCells[offset + 2]; z <= primitiveCells[offset + 5]; z++)
+                {
+                    int slot = findSlot(key(x, y, z));
+                    int previous = -1;
+
+                    for (int entry = heads[slot]; entry >= 0; previous = entry, entry = entryNext[entry])
+                    {
+                        if (entryPrimitives[entry] != primitive)
+                        {
+                            continue;
+                        }
+
+                        if (previous < 0)
+                        {
+                            heads[slot] = entryNext[entry];
+                        } else
+                        {
+                            entryNext[previous] = entryNext[entry];
+                        }
+
+                        freeEntry(entry);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int allocateEntry()
+    {
+        if (freeEntry >= 0)
+        {
+            int entry = freeEntry;
+            freeEntry = entryNext[entry];
+            return entry;
+        }
+
+        if (entryCount == entryPrimitives.length)
+        {
+            entryPrimitives = Arrays.copyOf(entryPrimitives, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+
+        return entryCount++;
+    }
+
+    private void freeEntry(int entry)
+    {
+        entryNext[entry] = freeEntry;
+        freeEntry = entry;
+    }
+
+    // emptied cells keep their slot, they are likely to be entered again by the part that just left them
+    private int getOrCreateSlot(long key)
+    {
+        int slot = findSlot(key);
+
+        if (keys[slot] != EMPTY_KEY)
+        {
+            return slot;
+        }
+
+        if ((usedSlots + 1) * 2 > keys.length)
+        {
+            grow();
+            slot = findSlot(key);
+        }
+
+        keys[slot] = key;
+        heads[slot] = -1;
+        usedSlots++;
+        return slot;
+    }
+
+    // the slot holding the key, or the empty slot where it would go
+    private int findSlot(long key)
+    {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key)
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldHeads.length * 2];
+        Arrays.fill(keys, EMPTY_KEY);
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != EMPTY_KEY)
+            {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private int cell(float coordinate)
+    {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private static long key(int x, int y, int z)
+    {
+        return ((x & COORDINATE_MASK) << (2 * COORDINATE_BITS)) | ((y & COORDINATE_MASK) << COORDINATE_BITS)
+                | (z & COORDINATE_MASK);
+    }
+
+    private static int hash(long key)
+    {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    public float getCellSize()
+    {
+        return cellSize;
+    }
+}
@@ -1,10 +1,10 @@
 package texture;
 
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL30;
-import org.lwjgl.system.MemoryStack;
+import render.GLState;
 
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.stb.STBImage.*;
@@ -16,17 +16,14 @@ public class Texture
     private int width;
     private int height;
     private String fileName;
-
-    //How long a single tile covers
-    private float x;
-    private float y;
+    private boolean deleted;
 
     public Texture() {
         id = glGenTextures();
     }
 
     public void bind() {
-        glBindTexture(GL_TEXTURE_2D, id);
+        GLState.bindTexture2D(id);
     }
 
     /**
@@ -64,22 +61,21 @@ public class Texture
         glTexImage2D(GL_TEXTURE_2D, 0, internalFormat, width, height, 0, format, GL_UNSIGNED_BYTE, data);
     }
 
+    /**
+     * Deletes the texture. Later calls do nothing, since GL may have handed
+     * the id out again by then.
+     */
     public void delete() {
-        glDeleteTextures(id);
-    }
-
-    public float getX() {
-        return x;
+        if (!deleted) {
+            GLState.deleteTexture(id);
+            deleted = true;
+        }
     }
 
-    public void setX(float x){this.x = x;}
-
-    public float getY() {
-        return y;
+    public boolean isDeleted() {
+        return deleted;
     }
 
-    public void setY(float y){this.y = y;}
-
     public int getWidth() {
         return width;
     }
@@ -142,28 +138,61 @@ public class Texture
      * @return Texture from specified file
      */
     public static Texture loadTexture(String path) {
-        ByteBuffer image;
-        int width, height;
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            /* Prepare image buffers */
-            IntBuffer w = stack.mallocInt(1);
-            IntBuffer h = stack.mallocInt(1);
-            IntBuffer comp = stack.mallocInt(1);
-
-            /* Load image */
-            stbi_set_flip_vertically_on_load(true);
-            image = stbi_load(path, w, h, comp, 4);
-            if (image == null) {
-                throw new RuntimeException("Failed to load a texture file!"
-                        + System.lineSeparator() + stbi_failure_reason());
-            }
-
-            /* Get width and height of image */
-            width = w.get();
-            height = h.get();
+        TextureLoader.DecodedImage image = TextureLoader.decode(path);
+
+        try {
+            return createTexture(image.width, image.height, image.pixels, path);
+        } finally {
+            stbi_image_free(image.pixels);
         }
+    }
+
+    /**
+     * Creates a 1x1 white texture that stands in for an image which is still
+     * being decoded.
+     *
+     * @param path File path of the texture that will replace the placeholder
+     *
+     * @return Placeholder texture
+     */
+    public static Texture createPlaceholder(String path) {
+        ByteBuffer white = BufferUtils.createByteBuffer(4);
+        white.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF);
+        white.flip();
+
+        return createTexture(1, 1, white, path);
+    }
 
-        return createTexture(width, height, image, path);
+    /**
+     * Replaces the image of this texture while keeping its id, so everything
+     * that already refers to the texture picks up the new image.
+     *
+     * @param width  Width of the image
+     * @param height Height of the image
+     * @param data   Picture Data in RGBA format
+     */
+    public void replaceData(int width, int height, ByteBuffer data) {
+        setWidth(width);
+        setHeight(height);
+        bind();
+        uploadData(GL_RGBA8, width, height, GL_RGBA, data);
+        GL30.glGenerateMipmap(GL_TEXTURE_2D);
+    }
+
+    /**
+     * Replaces the image of this texture with data from the currently bound
+     * pixel unpack buffer.
+     *
+     * @param width  Width of the image
+     * @param height Height of the image
+     * @param offset Byte offset of the RGBA data inside the pixel buffer
+     */
+    public void replaceData(int width, int height, long offset) {
+        setWidth(width);
+        setHeight(height);
+        bind();
+        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, offset);
+        GL30.glGenerateMipmap(GL_TEXTURE_2D);
     }
 
     public int getId()
@@ -0,0 +1,90 @@
+package texture;
+
+import java.util.HashMap;
+
+/**
+ * Hands out one shared {@link Texture} per file path. Every {@link #acquire(String)} has to be matched by a
+ * {@link #release(Texture)}; the texture is deleted once its last user has released it. Like the textures
+ * themselves, the cache must only be used on the thread that owns the GL context.
+ */
+public class TextureCache
+{
+    private static final HashMap<String, CachedTexture> textures = new HashMap<>();
+
+    private TextureCache()
+    {
+    }
+
+    /**
+     * Returns the texture for the given path, loading it the first time it is asked for. The image is decoded in
+     * the background by the {@link TextureLoader}; until it has been uploaded the texture is a white placeholder.
+     *
+     * @param path File path of the texture
+     *
+     * @return The shared texture
+     */
+    public static synchronized Texture acquire(String path)
+    {
+        CachedTexture cachedTexture = textures.get(path);
+
+        if (cachedTexture == null)
+        {
+            cachedTexture = new CachedTexture(TextureLoader.getInstance().loadAsync(path));
+            textures.put(path, cachedTexture);
+        }
+
+        cachedTexture.references++;
+        return cachedTexture.texture;
+    }
+
+    /**
+     * Gives up one reference to a texture obtained from {@link #acquire(String)}.
+     *
+     * @param texture The texture to release
+     */
+    public static synchronized void release(Texture texture)
+    {
+        CachedTexture cachedTexture = textures.get(texture.getFileName());
+
+        if (cachedTexture == null || cachedTexture.texture != texture)
+        {
+            return;
+        }
+
+        cachedTexture.references--;
+        if (cachedTexture.references <= 0)
+        {
+            textures.remove(texture.getFileName());
+            texture.delete();
+        }
+    }
+
+    public static synchronized int size()
+    {
+        return textures.size();
+    }
+
+    /**
+     * Deletes every cached texture, regardless of how many references are still out there.
+     */
+    public static synchronized void cleanUp()
+    {
+        for (CachedTexture cachedTexture : textures.values())
+        {
+            cachedTexture.texture.delete();
+        }
+
+        textures.clear();
+    }
+
+    private static class CachedTexture
+    {
+        private final Texture texture;
+        private int references;
+
+        private CachedTexture(Texture texture)
+        {
+            this.texture = texture;
+        }
+    }
+}
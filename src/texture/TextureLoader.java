@@ -0,0 +1,221 @@
+package texture;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.lwjgl.stb.STBImage.*;
+
+/**
+ * Decodes texture files on a pool of worker threads. {@link #loadAsync(String)} immediately returns a
+ * placeholder texture; the decoded pixels are queued and uploaded into that same texture on the GL thread by
+ * {@link #uploadPending(long)}, which is meant to be called once per frame with a time budget.
+ */
+public class TextureLoader
+{
+    // stage uploads through a pixel buffer object instead of handing the client memory to glTexImage2D
+    private static final boolean USE_PIXEL_BUFFER_OBJECTS = true;
+    private static final TextureLoader INSTANCE = new TextureLoader();
+
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<DecodedImage> decodedImages;
+    private int pixelBufferId;
+
+    private TextureLoader()
+    {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.workers = Executors.newFixedThreadPool(threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, "Texture decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.decodedImages = new ConcurrentLinkedQueue<>();
+    }
+
+    public static TextureLoader getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Must be called on the GL thread.
+     *
+     * @param path File path of the texture
+     *
+     * @return Placeholder texture that receives the image once it has been decoded and uploaded
+     */
+    public Texture loadAsync(String path)
+    {
+        Texture texture = Texture.createPlaceholder(path);
+
+        workers.execute(() ->
+        {
+            DecodedImage image;
+
+            try
+            {
+                image = decode(path);
+            } catch (RuntimeException e)
+            {
+                image = new DecodedImage(path, e);
+            }
+
+            image.texture = texture;
+            decodedImages.add(image);
+        });
+
+        return texture;
+    }
+
+    /**
+     * Uploads decoded images until the queue is empty or the budget is spent. At least one image is uploaded per
+     * call, so a tiny budget still makes progress. Images of textures that were deleted in the meantime are dropped.
+     * Must be called on the GL thread.
+     *
+     * @param budgetNanos Time that may be spent uploading
+     *
+     * @return Number of textures uploaded
+     */
+    public int uploadPending(long budgetNanos)
+    {
+        long deadline = System.nanoTime() + budgetNanos;
+        int uploaded = 0;
+        DecodedImage image;
+
+        while ((uploaded == 0 || System.nanoTime() < deadline) && (image = decodedImages.poll()) != null)
+        {
+            // released while it was decoding: its id may already belong to a newer texture, so it must not be bound
+            if (image.texture.isDeleted())
+            {
+                if (image.pixels != null)
+                {
+                    stbi_image_free(image.pixels);
+                }
+                continue;
+            }
+
+            if (image.error != null)
+            {
+                throw image.error;
+            }
+
+            try
+            {
+                upload(image);
+            } finally
+            {
+                stbi_image_free(image.pixels);
+            }
+
+            uploaded++;
+        }
+
+        return uploaded;
+    }
+
+    private void upload(DecodedImage image)
+    {
+        if (!USE_PIXEL_BUFFER_OBJECTS)
+        {
+            image.texture.replaceData(image.width, image.height, image.pixels);
+            return;
+        }
+
+        if (pixelBufferId == 0)
+        {
+            pixelBufferId = GL15.glGenBuffers();
+        }
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, pixelBufferId);
+        // orphan the previous contents so the driver does not wait for the last upload to finish
+        GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, image.pixels, GL15.GL_STREAM_DRAW);
+        image.texture.replaceData(image.width, image.height, 0L);
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    public boolean hasPending()
+    {
+        return !decodedImages.isEmpty();
+    }
+
+    public void cleanUp()
+    {
+        workers.shutdownNow();
+
+        DecodedImage image;
+        while ((image = decodedImages.poll()) != null)
+        {
+            if (image.pixels != null)
+            {
+                stbi_image_free(image.pixels);
+            }
+        }
+
+        if (pixelBufferId != 0)
+        {
+            GL15.glDeleteBuffers(pixelBufferId);
+            pixelBufferId = 0;
+        }
+    }
+
+    /**
+     * Decodes an image file into RGBA pixels. Safe to call from any thread; the pixels must be freed with
+     * stbi_image_free.
+     */
+    static DecodedImage decode(String path)
+    {
+        try (MemoryStack stack = MemoryStack.stackPush())
+        {
+            /* Prepare image buffers */
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer comp = stack.mallocInt(1);
+
+            /* Load image */
+            stbi_set_flip_vertically_on_load(true);
+            ByteBuffer image = stbi_load(path, w, h, comp, 4);
+            if (image == null)
+            {
+                throw new RuntimeException("Failed to load a texture file!"
+                        + System.lineSeparator() + stbi_failure_reason());
+            }
+
+            return new DecodedImage(path, w.get(), h.get(), image);
+        }
+    }
+
+    static class DecodedImage
+    {
+        final String path;
+        final int width;
+        final int height;
+        final ByteBuffer pixels;
+        final RuntimeException error;
+        Texture texture;
+
+        DecodedImage(String path, int width, int height, ByteBuffer pixels)
+        {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.error = null;
+        }
+
+        DecodedImage(String path, RuntimeException error)
+        {
+            this.path = path;
+            this.width = 0;
+            this.height = 0;
+            this.pixels = null;
+            this.error = error;
+        }
+    }
+}
@@ -51,6 +51,72 @@ public class Matrix4f {
         m33 = col4.w;
     }
 
+    /**
+     * Copies 16 values in column-major order from an array into this matrix.
+     *
+     * @param array  The array holding the matrix data
+     * @param offset Index of the first element to read
+     *
+     * @return This matrix
+     */
+    public Matrix4f set(float[] array, int offset) {
+        m00 = array[offset];
+        m10 = array[offset + 1];
+        m20 = array[offset + 2];
+        m30 = array[offset + 3];
+
+        m01 = array[offset + 4];
+        m11 = array[offset + 5];
+        m21 = array[offset + 6];
+        m31 = array[offset + 7];
+
+        m02 = array[offset + 8];
+        m12 = array[offset + 9];
+        m22 = array[offset + 10];
+        m32 = array[offset + 11];
+
+        m03 = array[offset + 12];
+        m13 = array[offset + 13];
+        m23 = array[offset + 14];
+        m33 = array[offset + 15];
+
+        return this;
+    }
+
+    /**
+     * Sets the columns of this matrix.
+     *
+     * @param col1 Vector with values of the first column
+     * @param col2 Vector with values of the second column
+     * @param col3 Vector with values of the third column
+     * @param col4 Vector with values of the fourth column
+     *
+     * @return This matrix
+     */
+    public Matrix4f set(Vector4f col1, Vector4f col2, Vector4f col3, Vector4f col4) {
+        m00 = col1.x;
+        m10 = col1.y;
+        m20 = col1.z;
+        m30 = col1.w;
+
+        m01 = col2.x;
+        m11 = col2.y;
+        m21 = col2.z;
+        m31 = col2.w;
+
+        m02 = col3.x;
+        m12 = col3.y;
+        m22 = col3.z;
+        m32 = col3.w;
+
+        m03 = col4.x;
+        m13 = col4.y;
+        m23 = col4.z;
+        m33 = col4.w;
+
+        return this;
+    }
+
     /**
      * Sets this matrix to the identity matrix.
      */
@@ -74,6 +140,37 @@ public class Matrix4f {
         m32 = 0f;
     }
 
+    /**
+     * Copies the values of another matrix into this matrix.
+     *
+     * @param other The matrix to copy
+     *
+     * @return This matrix
+     */
+    public Matrix4f set(Matrix4f other) {
+        m00 = other.m00;
+        m10 = other.m10;
+        m20 = other.m20;
+        m30 = other.m30;
+
+        m01 = other.m01;
+        m11 = other.m11;
+        m21 = other.m21;
+        m31 = other.m31;
+
+        m02 = other.m02;
+        m12 = other.m12;
+        m22 = other.m22;
+        m32 = other.m32;
+
+        m03 = other.m03;
+        m13 = other.m13;
+        m23 = other.m23;
+        m33 = other.m33;
+
+        return this;
+    }
+
     /**
      * Adds this matrix to another matrix.
      *
@@ -208,6 +305,76 @@ public class Matrix4f {
         return result;
     }
 
+    /**
+     * Multiplies this matrix to a vector and stores the result in a
+     * destination vector. The destination may be the source vector.
+     *
+     * @param vector The vector
+     * @param dst    The vector to store the result in
+     *
+     * @return The destination vector
+     */
+    public Vector4f multiplyInto(Vector4f vector, Vector4f dst) {
+        float x = this.m00 * vector.x + this.m01 * vector.y + this.m02 * vector.z + this.m03 * vector.w;
+        float y = this.m10 * vector.x + this.m11 * vector.y + this.m12 * vector.z + this.m13 * vector.w;
+        float z = this.m20 * vector.x + this.m21 * vector.y + this.m22 * vector.z + this.m23 * vector.w;
+        float w = this.m30 * vector.x + this.m31 * vector.y + this.m32 * vector.z + this.m33 * vector.w;
+        return dst.set(x, y, z, w);
+    }
+
+    /**
+     * Multiplies this matrix to another matrix and stores the result in a
+     * destination matrix. The destination may be this or the other matrix.
+     *
+     * @param other The other matrix
+     * @param dst   The matrix to store the product of this * other in
+     *
+     * @return The destination matrix
+     */
+    public Matrix4f mulInto(Matrix4f other, Matrix4f dst) {
+        float r00 = this.m00 * other.m00 + this.m01 * other.m10 + this.m02 * other.m20 + this.m03 * other.m30;
+        float r10 = this.m10 * other.m00 + this.m11 * other.m10 + this.m12 * other.m20 + this.m13 * other.m30;
+        float r20 = this.m20 * other.m00 + this.m21 * other.m10 + this.m22 * other.m20 + this.m23 * other.m30;
+        float r30 = this.m30 * other.m00 + this.m31 * other.m10 + this.m32 * other.m20 + this.m33 * other.m30;
+
+        float r01 = this.m00 * other.m01 + this.m01 * other.m11 + this.m02 * other.m21 + this.m03 * other.m31;
+        float r11 = this.m10 * other.m01 + this.m11 * other.m11 + this.m12 * other.m21 + this.m13 * other.m31;
+        float r21 = this.m20 * other.m01 + this.m21 * other.m11 + this.m22 * other.m21 + this.m23 * other.m31;
+        float r31 = this.m30 * other.m01 + this.m31 * other.m11 + this.m32 * other.m21 + this.m33 * other.m31;
+
+        float r02 = this.m00 * other.m02 + this.m01 * other.m12 + this.m02 * other.m22 + this.m03 * other.m32;
+        float r12 = this.m10 * other.m02 + this.m11 * other.m12 + this.m12 * other.m22 + this.m13 * other.m32;
+        float r22 = this.m20 * other.m02 + this.m21 * other.m12 + this.m22 * other.m22 + this.m23 * other.m32;
+        float r32 = this.m30 * other.m02 + this.m31 * other.m12 + this.m32 * other.m22 + this.m33 * other.m32;
+
+        float r03 = this.m00 * other.m03 + this.m01 * other.m13 + this.m02 * other.m23 + this.m03 * other.m33;
+        float r13 = this.m10 * other.m03 + this.m11 * other.m13 + this.m12 * other.m23 + this.m13 * other.m33;
+        float r23 = this.m20 * other.m03 + this.m21 * other.m13 + this.m22 * other.m23 + this.m23 * other.m33;
+        float r33 = this.m30 * other.m03 + this.m31 * other.m13 + this.m32 * other.m23 + this.m33 * other.m33;
+
+        dst.m00 = r00;
+        dst.m10 = r10;
+        dst.m20 = r20;
+        dst.m30 = r30;
+
+        dst.m01 = r01;
+        dst.m11 = r11;
+        dst.m21 = r21;
+        dst.m31 = r31;
+
+        dst.m02 = r02;
+        dst.m12 = r12;
+        dst.m22 = r22;
+        dst.m32 = r32;
+
+        dst.m03 = r03;
+        dst.m13 = r13;
+        dst.m23 = r23;
+        dst.m33 = r33;
+
+        return dst;
+    }
+
     /**
      * Transposes this matrix.
      *
@@ -252,6 +419,34 @@ public class Matrix4f {
         buffer.flip();
     }
 
+    /**
+     * Stores the matrix in a given array in column-major order.
+     *
+     * @param array  The array to store the matrix data
+     * @param offset Index of the first element to write
+     */
+    public void toArray(float[] array, int offset) {
+        array[offset] = m00;
+        array[offset + 1] = m10;
+        array[offset + 2] = m20;
+        array[offset + 3] = m30;
+
+        array[offset + 4] = m01;
+        array[offset + 5] = m11;
+        array[offset + 6] = m21;
+        array[offset + 7] = m31;
+
+        array[offset + 8] = m02;
+        array[offset + 9] = m12;
+        array[offset + 10] = m22;
+        array[offset + 11] = m32;
+
+        array[offset + 12] = m03;
+        array[offset + 13] = m13;
+        array[offset + 14] = m23;
+        array[offset + 15] = m33;
+    }
+
     /**
      * Creates a orthographic projection matrix. Similar to
      * <code>glOrtho(left, right, bottom, top, near, far)</code>.
@@ -421,4 +616,191 @@ public class Matrix4f {
         return scaling;
     }
 
+    /**
+     * Sets this matrix to a translation matrix.
+     *
+     * @param x x coordinate of translation vector
+     * @param y y coordinate of translation vector
+     * @param z z coordinate of translation vector
+     *
+     * @return This matrix
+     */
+    public Matrix4f setTranslation(float x, float y, float z) {
+        setIdentity();
+
+        m03 = x;
+        m13 = y;
+        m23 = z;
+
+        return this;
+    }
+
+    /**
+     * Sets this matrix to a rotation matrix.
+     *
+     * @param angle Angle of rotation in degrees
+     * @param x     x coordinate of the rotation vector
+     * @param y     y coordinate of the rotation vector
+     * @param z     z coordinate of the rotation vector
+     *
+     * @return This matrix
+     */
+    public Matrix4f setRotation(float angle, float x, float y, float z) {
+        setIdentity();
+
+        float c = (float) Math.cos(Math.toRadians(angle));
+        float s = (float) Math.sin(Math.toRadians(angle));
+        float lengthSquared = x * x + y * y + z * z;
+        if (lengthSquared != 1f) {
+            float inverseLength = 1f / (float) Math.sqrt(lengthSquared);
+            x *= inverseLength;
+            y *= inverseLength;
+            z *= inverseLength;
+        }
+
+        m00 = x * x * (1f - c) + c;
+        m10 = y * x * (1f - c) + z * s;
+        m20 = x * z * (1f - c) - y * s;
+        m01 = x * y * (1f - c) - z * s;
+        m11 = y * y * (1f - c) + c;
+        m21 = y * z * (1f - c) + x * s;
+        m02 = x * z * (1f - c) + y * s;
+        m12 = y * z * (1f - c) - x * s;
+        m22 = z * z * (1f - c) + c;
+
+        return this;
+    }
+
+    /**
+     * Sets this matrix to a scaling matrix.
+     *
+     * @param x Scale factor along the x coordinate
+     * @param y Scale factor along the y coordinate
+     * @param z Scale factor along the z coordinate
+     *
+     * @return This matrix
+     */
+    public Matrix4f setScale(float x, float y, float z) {
+        setIdentity();
+
+        m00 = x;
+        m11 = y;
+        m22 = z;
+
+        return this;
+    }
+
+    /**
+     * Multiplies this matrix with a translation matrix in place, so that
+     * this = this * translate(x, y, z).
+     *
+     * @param x x coordinate of translation vector
+     * @param y y coordinate of translation vector
+     * @param z z coordinate of translation vector
+     *
+     * @return This matrix
+     */
+    public Matrix4f mulTranslation(float x, float y, float z) {
+        m03 += m00 * x + m01 * y + m02 * z;
+        m13 += m10 * x + m11 * y + m12 * z;
+        m23 += m20 * x + m21 * y + m22 * z;
+        m33 += m30 * x + m31 * y + m32 * z;
+
+        return this;
+    }
+
+    /**
+     * Multiplies this matrix with a rotation matrix in place, so that
+     * this = this * rotate(angle, x, y, z).
+     *
+     * @param angle Angle of rotation in degrees
+     * @param x     x coordinate of the rotation vector
+     * @param y     y coordinate of the rotation vector
+     * @param z     z coordinate of the rotation vector
+     *
+     * @return This matrix
+     */
+    public Matrix4f mulRotation(float angle, float x, float y, float z) {
+        float c = (float) Math.cos(Math.toRadians(angle));
+        float s = (float) Math.sin(Math.toRadians(angle));
+        float lengthSquared = x * x + y * y + z * z;
+        if (lengthSquared != 1f) {
+            float inverseLength = 1f / (float) Math.sqrt(lengthSquared);
+            x *= inverseLength;
+            y *= inverseLength;
+            z *= inverseLength;
+        }
+
+        float r00 = x * x * (1f - c) + c;
+        float r10 = y * x * (1f - c) + z * s;
+        float r20 = x * z * (1f - c) - y * s;
+        float r01 = x * y * (1f - c) - z * s;
+        float r11 = y * y * (1f - c) + c;
+        float r21 = y * z * (1f - c) + x * s;
+        float r02 = x * z * (1f - c) + y * s;
+        float r12 = y * z * (1f - c) - x * s;
+        float r22 = z * z * (1f - c) + c;
+
+        float n00 = m00 * r00 + m01 * r10 + m02 * r20;
+        float n10 = m10 * r00 + m11 * r10 + m12 * r20;
+        float n20 = m20 * r00 + m21 * r10 + m22 * r20;
+        float n30 = m30 * r00 + m31 * r10 + m32 * r20;
+
+        float n01 = m00 * r01 + m01 * r11 + m02 * r21;
+        float n11 = m10 * r01 + m11 * r11 + m12 * r21;
+        float n21 = m20 * r01 + m21 * r11 + m22 * r21;
+        float n31 = m30 * r01 + m31 * r11 + m32 * r21;
+
+        float n02 = m00 * r02 + m01 * r12 + m02 * r22;
+        float n12 = m10 * r02 + m11 * r12 + m12 * r22;
+        float n22 = m20 * r02 + m21 * r12 + m22 * r22;
+        float n32 = m30 * r02 + m31 * r12 + m32 * r22;
+
+        m00 = n00;
+        m10 = n10;
+        m20 = n20;
+        m30 = n30;
+
+        m01 = n01;
+        m11 = n11;
+        m21 = n21;
+        m31 = n31;
+
+        m02 = n02;
+        m12 = n12;
+        m22 = n22;
+        m32 = n32;
+
+        return this;
+    }
+
+    /**
+     * Multiplies this matrix with a scaling matrix in place, so that
+     * this = this * scale(x, y, z).
+     *
+     * @param x Scale factor along the x coordinate
+     * @param y Scale factor along the y coordinate
+     * @param z Scale factor along the z coordinate
+     *
+     * @return This matrix
+     */
+    public Matrix4f mulScale(float x, float y, float z) {
+        m00 *= x;
+        m10 *= x;
+        m20 *= x;
+        m30 *= x;
+
+        m01 *= y;
+        m11 *= y;
+        m21 *= y;
+        m31 *= y;
+
+        m02 *= z;
+        m12 *= z;
+        m22 *= z;
+        m32 *= z;
+
+        return this;
+    }
+
 }
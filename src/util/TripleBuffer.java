@@ -0,0 +1,86 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands complete states from one producer thread to one consumer thread
+ * without locks. The producer fills the back buffer and publishes it, the
+ * consumer takes the newest published buffer, and a third buffer in the
+ * middle is what they swap through, so neither side ever waits for the
+ * other or sees a half written state.
+ * <p>
+ * Buffers are reused, so the producer has to write every field of the back
+ * buffer before publishing it. Several producer threads are fine as long as
+ * they are serialized by a common lock.
+ *
+ * @param <T> Type of the state
+ */
+public class TripleBuffer<T> {
+
+    // set on the middle index when it holds a state the consumer has not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final Object[] buffers;
+    private final AtomicInteger middle;
+    private int back;  // producer only
+    private int front; // consumer only
+
+    /**
+     * Creates a triple buffer with three states from the given factory.
+     *
+     * @param factory Creates the states
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = new Object[]{factory.get(), factory.get(), factory.get()};
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * Gets the buffer the producer writes the next state into.
+     *
+     * @return The back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the back buffer to the consumer and hands the producer a new
+     * back buffer.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Takes the newest published state if there is one the consumer has not
+     * seen yet, otherwise keeps the current one.
+     *
+     * @return The state the consumer may read until its next acquire
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+
+        return (T) buffers[front];
+    }
+
+    /**
+     * Gets the state taken by the consumer's last acquire, without looking
+     * for a newer one.
+     *
+     * @return The consumer's current state
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        return (T) buffers[front];
+    }
+
+}
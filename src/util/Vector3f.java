@@ -35,6 +35,33 @@ public class Vector3f {
         this.z = z;
     }
 
+    /**
+     * Sets the values of this vector.
+     *
+     * @param x x value
+     * @param y y value
+     * @param z z value
+     *
+     * @return This vector
+     */
+    public Vector3f set(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * Copies the values of another vector into this vector.
+     *
+     * @param other The vector to copy
+     *
+     * @return This vector
+     */
+    public Vector3f set(Vector3f other) {
+        return set(other.x, other.y, other.z);
+    }
+
     /**
      * Calculates the squared length of the vector.
      *
@@ -147,6 +174,65 @@ public class Vector3f {
         return new Vector3f(x, y, z);
     }
 
+    /**
+     * Adds another vector to this vector in place.
+     *
+     * @param other The other vector
+     *
+     * @return This vector, now holding this + other
+     */
+    public Vector3f addLocal(Vector3f other) {
+        return set(this.x + other.x, this.y + other.y, this.z + other.z);
+    }
+
+    /**
+     * Subtracts another vector from this vector in place.
+     *
+     * @param other The other vector
+     *
+     * @return This vector, now holding this - other
+     */
+    public Vector3f subtractLocal(Vector3f other) {
+        return set(this.x - other.x, this.y - other.y, this.z - other.z);
+    }
+
+    /**
+     * Multiplies this vector by a scalar in place.
+     *
+     * @param scalar Scalar to multiply
+     *
+     * @return This vector, now holding this * scalar
+     */
+    public Vector3f scaleLocal(float scalar) {
+        return set(this.x * scalar, this.y * scalar, this.z * scalar);
+    }
+
+    /**
+     * Normalizes this vector in place.
+     *
+     * @return This vector, now normalized
+     */
+    public Vector3f normalizeLocal() {
+        return scaleLocal(1f / length());
+    }
+
+    /**
+     * Calculates the cross product of this vector with another vector and
+     * stores it in a destination vector. The destination may be this or the
+     * other vector.
+     *
+     * @param other The other vector
+     * @param dst   The vector to store the result in
+     *
+     * @return The destination vector, holding this x other
+     */
+    public Vector3f crossInto(Vector3f other, Vector3f dst) {
+        float x = this.y * other.z - this.z * other.y;
+        float y = this.z * other.x - this.x * other.z;
+        float z = this.x * other.y - this.y * other.x;
+        return dst.set(x, y, z);
+    }
+
     /**
      * Calculates a linear interpolation between this vector with another
      * vector.
@@ -160,6 +246,24 @@ public class Vector3f {
         return this.scale(1f - alpha).add(other.scale(alpha));
     }
 
+    /**
+     * Calculates a linear interpolation between this vector and another
+     * vector and stores it in a destination vector. The destination may be
+     * this or the other vector.
+     *
+     * @param other The other vector
+     * @param alpha The alpha value, must be between 0.0 and 1.0
+     * @param dst   The vector to store the result in
+     *
+     * @return The destination vector, holding the interpolated vector
+     */
+    public Vector3f lerpInto(Vector3f other, float alpha, Vector3f dst) {
+        float x = this.x + (other.x - this.x) * alpha;
+        float y = this.y + (other.y - this.y) * alpha;
+        float z = this.z + (other.z - this.z) * alpha;
+        return dst.set(x, y, z);
+    }
+
     /**
      * Stores the vector in a given Buffer.
      *
@@ -34,6 +34,24 @@ public class Vector4f {
         this.w = w;
     }
 
+    /**
+     * Sets the values of this vector.
+     *
+     * @param x x value
+     * @param y y value
+     * @param z z value
+     * @param w w value
+     *
+     * @return This vector
+     */
+    public Vector4f set(float x, float y, float z, float w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+        return this;
+    }
+
     /**
      * Calculates the squared length of the vector.
      *